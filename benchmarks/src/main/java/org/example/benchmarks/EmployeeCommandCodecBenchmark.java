@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import org.example.dto.NewEmployeeRequest;
+import org.example.listener.EmployeeCommandDecoder;
+import org.example.listener.EmployeeCommandParser;
+import org.example.models.EmployeeCommand;
+import org.example.service.EmployeeCommandEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Команды RabbitMQ: EmployeeCommandEncoder (gateway-service) и EmployeeCommandDecoder (domain-service)
+ * в обоих форматах - текстовом String.format/split и protobuf.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeCommandCodecBenchmark {
+
+    @Param({"text", "protobuf"})
+    private String format;
+
+    private EmployeeCommandEncoder encoder;
+    private EmployeeCommandDecoder decoder;
+    private NewEmployeeRequest request;
+    private Message createMessage;
+    private Message updateMessage;
+
+    @Setup
+    public void setUp() {
+        encoder = new EmployeeCommandEncoder(format);
+        decoder = new EmployeeCommandDecoder(new EmployeeCommandParser());
+        request = new NewEmployeeRequest("Иван Петров", "Разработчик", 185_000.5, LocalDate.of(2019, 3, 14));
+        createMessage = encoder.create(request);
+        updateMessage = encoder.update(4242L, request);
+    }
+
+    @Benchmark
+    public Message encodeCreate() {
+        return encoder.create(request);
+    }
+
+    @Benchmark
+    public Message encodeUpdate() {
+        return encoder.update(4242L, request);
+    }
+
+    @Benchmark
+    public EmployeeCommand decodeCreate() {
+        return decoder.decode(createMessage);
+    }
+
+    @Benchmark
+    public EmployeeCommand decodeUpdate() {
+        return decoder.decode(updateMessage);
+    }
+}
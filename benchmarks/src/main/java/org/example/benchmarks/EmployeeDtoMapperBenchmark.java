@@ -0,0 +1,49 @@
+package org.example.benchmarks;
+
+import org.example.domainservice.EmployeeResponse;
+import org.example.dto.EmployeeDto;
+import org.example.grpc.EmployeeDtoMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gateway-service: ответ gRPC -> EmployeeDto (EmployeeGrpcClient.convertToDto делегирует в EmployeeDtoMapper),
+ * отдельно - доля LocalDate.parse на строку.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeDtoMapperBenchmark {
+
+    @Param({"1", "1000"})
+    private int rows;
+
+    private List<EmployeeResponse> responses;
+
+    @Setup
+    public void setUp() {
+        responses = EmployeeFixtures.responses(rows);
+    }
+
+    @Benchmark
+    public void toDto(Blackhole blackhole) {
+        for (EmployeeResponse response : responses) {
+            EmployeeDto employee = EmployeeDtoMapper.toDto(response);
+            blackhole.consume(employee);
+        }
+    }
+
+    @Benchmark
+    public void parseHireDate(Blackhole blackhole) {
+        for (EmployeeResponse response : responses) {
+            blackhole.consume(LocalDate.parse(response.getHireDate()));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.benchmarks;
+
+import org.example.domainservice.EmployeeResponse;
+import org.example.dto.EmployeeDto;
+import org.example.models.Employee;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Одинаковые от запуска к запуску данные для замеров: имена и должности в кириллице,
+ * как в рабочей базе, зарплаты с копейками, даты приёма за двадцать лет.
+ */
+final class EmployeeFixtures {
+    private static final String[] FIRST_NAMES = {"Иван", "Пётр", "Анна", "Мария", "Сергей", "Ольга", "Алексей", "Елена"};
+    private static final String[] LAST_NAMES = {"Иванов", "Петров", "Сидоров", "Кузнецов", "Смирнов", "Попов", "Волков"};
+    private static final String[] POSITIONS = {"Разработчик", "Аналитик", "Тестировщик", "Менеджер", "Дизайнер"};
+    private static final LocalDate FIRST_HIRE_DATE = LocalDate.of(2005, 1, 1);
+
+    private EmployeeFixtures() {
+    }
+
+    static List<EmployeeDto> dtos(int count) {
+        Random random = new Random(42);
+        List<EmployeeDto> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(new EmployeeDto(
+                    (long) i + 1,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    POSITIONS[random.nextInt(POSITIONS.length)],
+                    Math.round((30_000 + random.nextDouble() * 270_000) * 100) / 100.0,
+                    FIRST_HIRE_DATE.plusDays(random.nextInt(7300))));
+        }
+        return employees;
+    }
+
+    static List<EmployeeResponse> responses(int count) {
+        List<EmployeeResponse> responses = new ArrayList<>(count);
+        for (EmployeeDto employee : dtos(count)) {
+            responses.add(EmployeeResponse.newBuilder()
+                    .setId(employee.getId())
+                    .setName(employee.getName())
+                    .setPosition(employee.getPosition())
+                    .setSalary(employee.getSalary())
+                    .setHireDate(employee.getHireDate().toString())
+                    .build());
+        }
+        return responses;
+    }
+
+    static List<Employee> entities(int count) {
+        List<Employee> entities = new ArrayList<>(count);
+        for (EmployeeDto employee : dtos(count)) {
+            Employee entity = new Employee(employee.getName(), employee.getPosition(), employee.getSalary(), employee.getHireDate());
+            entity.setId(employee.getId());
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
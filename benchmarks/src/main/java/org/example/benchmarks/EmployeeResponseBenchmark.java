@@ -0,0 +1,49 @@
+package org.example.benchmarks;
+
+import org.example.domainservice.ListEmployeesResponse;
+import org.example.grpc.EmployeeProtoMapper;
+import org.example.models.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * domain-service: сборка EmployeeResponse из сущности, как в EmployeeServiceGrpcImpl,
+ * и страницы ListEmployeesResponse вместе с сериализацией в байты для отправки.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeResponseBenchmark {
+
+    @Param({"1", "1000"})
+    private int rows;
+
+    private List<Employee> employees;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.entities(rows);
+    }
+
+    @Benchmark
+    public void toResponse(Blackhole blackhole) {
+        for (Employee employee : employees) {
+            blackhole.consume(EmployeeProtoMapper.toResponse(employee));
+        }
+    }
+
+    @Benchmark
+    public byte[] listEmployeesPage() {
+        ListEmployeesResponse.Builder response = ListEmployeesResponse.newBuilder();
+        for (Employee employee : employees) {
+            response.addEmployees(EmployeeProtoMapper.toResponse(employee));
+        }
+        return response.setHasMore(true).build().toByteArray();
+    }
+}
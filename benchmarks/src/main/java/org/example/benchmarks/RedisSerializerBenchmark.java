@@ -0,0 +1,94 @@
+package org.example.benchmarks;
+
+import org.example.config.RedisConfig;
+import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.serializer.EmployeePageProtobufRedisSerializer;
+import org.example.serializer.EmployeeProtobufRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализаторы значений из RedisConfig: один сотрудник и страница из 1k/100k строк,
+ * protobuf (со сжатием LZ4 от 1 КБ, как по умолчанию) против JSON (cache.redis.format=json).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+    private static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class EmployeeState {
+        @Param({"protobuf", "json"})
+        private String format;
+
+        private RedisSerializer<EmployeeDto> serializer;
+        private EmployeeDto employee;
+        private byte[] bytes;
+
+        @Setup
+        @SuppressWarnings("unchecked")
+        public void setUp() {
+            serializer = "protobuf".equals(format)
+                    ? new EmployeeProtobufRedisSerializer()
+                    : (RedisSerializer<EmployeeDto>) (RedisSerializer<?>) jsonSerializer();
+            employee = EmployeeFixtures.dtos(1).get(0);
+            bytes = serializer.serialize(employee);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+        @Param({"protobuf", "json"})
+        private String format;
+
+        @Param({"1000", "100000"})
+        private int rows;
+
+        private RedisSerializer<EmployeePageDto> serializer;
+        private EmployeePageDto page;
+        private byte[] bytes;
+
+        @Setup
+        @SuppressWarnings("unchecked")
+        public void setUp() {
+            serializer = "protobuf".equals(format)
+                    ? new EmployeePageProtobufRedisSerializer(true, COMPRESSION_THRESHOLD_BYTES)
+                    : (RedisSerializer<EmployeePageDto>) (RedisSerializer<?>) jsonSerializer();
+            List<EmployeeDto> employees = EmployeeFixtures.dtos(rows);
+            page = new EmployeePageDto(employees, employees.get(employees.size() - 1).getId(), true);
+            bytes = serializer.serialize(page);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee(EmployeeState state) {
+        return state.serializer.serialize(state.employee);
+    }
+
+    @Benchmark
+    public Object deserializeEmployee(EmployeeState state) {
+        return state.serializer.deserialize(state.bytes);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) {
+        return state.serializer.serialize(state.page);
+    }
+
+    @Benchmark
+    public Object deserializePage(PageState state) {
+        return state.serializer.deserialize(state.bytes);
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        return new GenericJackson2JsonRedisSerializer(new RedisConfig().objectMapper());
+    }
+}
@@ -0,0 +1,69 @@
+-- Проверка планов SearchEmployees на миллионе строк.
+-- Запуск: psql -h localhost -U postgres -d employees -f domain-service/db/search-explain.sql
+-- Всё выполняется в транзакции с ROLLBACK: тестовые строки и статистика в базе не остаются.
+-- Индексы из V2 должны уже существовать (миграции применяются при старте domain-service).
+--
+-- Ожидаемое: Index Scan (или Index Scan Backward для DESC) по указанному индексу и Limit,
+-- без Sort над всей таблицей; число прочитанных буферов - порядка размера страницы, а не таблицы.
+-- Вторые страницы (с ключом продолжения) должны стоить столько же, сколько первые.
+-- Последний прогон на миллионе строк с цифрами нагрузки - search-explain.results.txt.
+
+BEGIN;
+
+INSERT INTO employees (id, name, position, salary, hire_date)
+SELECT nextval('employees_seq'),
+       'Сотрудник ' || g,
+       (ARRAY['Разработчик', 'Аналитик', 'Тестировщик', 'Менеджер', 'Дизайнер',
+              'Администратор', 'Архитектор', 'Бухгалтер'])[1 + g % 8],
+       round((30000 + random() * 270000)::numeric, 2),
+       DATE '2005-01-01' + (random() * 7300)::int
+FROM generate_series(1, 1000000) AS g;
+
+ANALYZE employees;
+
+-- 1. Должность + диапазон зарплаты, сортировка по зарплате: idx_employees_position_salary_id
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE position = 'Разработчик' AND salary >= 100000 AND salary <= 150000 AND salary IS NOT NULL
+ORDER BY salary ASC, id ASC LIMIT 101;
+
+-- 2. То же, следующая страница по ключу (salary, id): idx_employees_position_salary_id
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE position = 'Разработчик' AND salary >= 100000 AND salary <= 150000 AND salary IS NOT NULL
+  AND (salary, id) > (120000, 500000)
+ORDER BY salary ASC, id ASC LIMIT 101;
+
+-- 3. Должность + период приёма, новые сначала: idx_employees_position_hire_date_id (Backward)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE position = 'Аналитик' AND hire_date >= DATE '2015-01-01' AND hire_date <= DATE '2020-12-31'
+  AND hire_date IS NOT NULL
+ORDER BY hire_date DESC, id DESC LIMIT 101;
+
+-- 4. Только диапазон зарплаты, по убыванию: idx_employees_salary_id (Backward)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE salary >= 200000 AND salary IS NOT NULL
+ORDER BY salary DESC, id DESC LIMIT 101;
+
+-- 5. Только период приёма, сортировка по дате приёма: idx_employees_hire_date_id
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE hire_date >= DATE '2024-06-01' AND hire_date <= DATE '2024-06-30' AND hire_date IS NOT NULL
+ORDER BY hire_date ASC, id ASC LIMIT 101;
+
+-- 6. Только период приёма, сортировка по id: idx_employees_hire_date_id + Sort (top-N)
+--    либо обход первичного ключа с фильтром - выбор зависит от селективности периода
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE hire_date >= DATE '2024-06-01' AND hire_date <= DATE '2024-06-30'
+ORDER BY id ASC LIMIT 101;
+
+-- 7. Должность без диапазонов, сортировка по id: обход первичного ключа с фильтром по должности
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, position, salary, hire_date FROM employees
+WHERE position = 'Дизайнер' AND id > 0
+ORDER BY id ASC LIMIT 101;
+
+ROLLBACK;
@@ -0,0 +1,17 @@
+package org.example.config;
+
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class EmployeeEventsConfig {
+
+    @Bean
+    public FanoutExchange employeeEventsExchange(@Value("${rabbitmq.events.exchange:employeeEvents}") String name) {
+        return new FanoutExchange(name, true, false);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики пула Hikari и общая статистика Hibernate (hibernate.*) подключаются автоконфигурацией
+ * Spring Boot; здесь добавляется время выполнения по каждому запросу (hibernate.query.*),
+ * по которому видны медленные запросы. Требует hibernate.generate_statistics=true.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory", Tags.empty());
+    }
+}
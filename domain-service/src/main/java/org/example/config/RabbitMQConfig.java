@@ -1,14 +0,0 @@
-package org.example.config;
-
-import org.springframework.amqp.core.Queue;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class RabbitMQConfig {
-
-    @Bean
-    public Queue queue() {
-        return new Queue("employeeQueue", true);
-    }
-}
@@ -0,0 +1,65 @@
+package org.example.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQListenerConfig {
+
+    @Bean
+    public Queue queue() {
+        return new Queue("employeeQueue", true);
+    }
+
+    /**
+     * Очередь недоставленных команд. Сообщения публикуются в неё явно ({@link org.example.listener.CommandDeadLetters}),
+     * а не через x-dead-letter-exchange: аргументы employeeQueue, уже объявленной у брокера и в gateway,
+     * менять нельзя без пересоздания очереди.
+     */
+    @Bean
+    public Queue deadLetterQueue(@Value("${rabbitmq.listener.dead-letter-queue:employeeQueue.dlq}") String name) {
+        return new Queue(name, true);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${rabbitmq.listener.batch.size:500}") int batchSize,
+            @Value("${rabbitmq.listener.batch.receive-timeout-ms:200}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setPrefetchCount(Math.max(batchSize, 250));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        // Неприменимые команды слушатель сам отправляет в очередь недоставленных; пакет, отклонённый
+        // по другой причине, не возвращается в очередь - иначе он доставлялся бы снова и снова.
+        // Сбой брокера при отправке в недоставленные возвращает пакет через ImmediateRequeueAmqpException
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory partitionedListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${rabbitmq.listener.partitioned.prefetch:1000}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        // Один потребитель сохраняет порядок очереди при раскладке по дорожкам
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(prefetch);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+}
@@ -37,22 +37,15 @@ public class EmployeeController {
     }
     @PutMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(id)
-                .map(existingEmployee -> {
-                    employee.setId(id);
-                    Employee updatedEmployee = employeeService.saveEmployee(employee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-                })
+        return employeeService.updateEmployee(id, employee)
+                .map(updatedEmployee -> new ResponseEntity<>(updatedEmployee, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEmployee(@PathVariable Long id) {
-        return employeeService.getEmployeeById(id)
-                .map(employee -> {
-                    employeeService.deleteEmployee(id);
-                    return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
-                })
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        return employeeService.deleteEmployee(id)
+                ? new ResponseEntity<>(HttpStatus.NO_CONTENT)
+                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
 }
\ No newline at end of file
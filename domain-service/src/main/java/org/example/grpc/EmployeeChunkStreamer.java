@@ -0,0 +1,61 @@
+package org.example.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.example.domainservice.EmployeeChunk;
+import org.example.models.Employee;
+import org.example.repository.EmployeeSearchRepository;
+
+import java.util.List;
+
+/**
+ * Отдаёт таблицу сотрудников порциями по ключу id, пока клиент готов принимать сообщения.
+ * Вызывается из onReady-обработчика, поэтому gRPC гарантирует последовательный вызов.
+ */
+class EmployeeChunkStreamer implements Runnable {
+
+    private final EmployeeSearchRepository searchRepository;
+    private final ServerCallStreamObserver<EmployeeChunk> observer;
+    private final int chunkSize;
+    private long lastId;
+    private boolean completed;
+    private volatile boolean cancelled;
+
+    EmployeeChunkStreamer(EmployeeSearchRepository searchRepository,
+                          ServerCallStreamObserver<EmployeeChunk> observer,
+                          long afterId,
+                          int chunkSize) {
+        this.searchRepository = searchRepository;
+        this.observer = observer;
+        this.lastId = afterId;
+        this.chunkSize = chunkSize;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!completed && !cancelled && observer.isReady()) {
+                List<Employee> employees = searchRepository.findChunkAfter(lastId, chunkSize);
+                if (!employees.isEmpty()) {
+                    EmployeeChunk.Builder chunk = EmployeeChunk.newBuilder();
+                    for (Employee employee : employees) {
+                        chunk.addEmployees(EmployeeProtoMapper.toResponse(employee));
+                    }
+                    lastId = employees.get(employees.size() - 1).getId();
+                    observer.onNext(chunk.build());
+                }
+                if (employees.size() < chunkSize) {
+                    completed = true;
+                    observer.onCompleted();
+                }
+            }
+        } catch (RuntimeException e) {
+            completed = true;
+            observer.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+        }
+    }
+}
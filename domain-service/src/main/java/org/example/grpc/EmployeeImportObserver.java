@@ -0,0 +1,126 @@
+package org.example.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.example.domainservice.ImportEmployeeRecord;
+import org.example.domainservice.ImportEmployeesResponse;
+import org.example.domainservice.ImportRejectedRow;
+import org.example.models.Employee;
+import org.example.repository.EmployeeCopyWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Принимает поток строк ImportEmployees, проверяет их и пишет в базу порциями по chunkSize.
+ * gRPC вызывает onNext последовательно и не запрашивает следующее сообщение, пока onNext
+ * не вернул управление, поэтому запись порции сама по себе сдерживает отправителя.
+ */
+class EmployeeImportObserver implements StreamObserver<ImportEmployeeRecord> {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportObserver.class);
+
+    private final EmployeeCopyWriter copyWriter;
+    private final StreamObserver<ImportEmployeesResponse> responseObserver;
+    private final int chunkSize;
+    private final int maxReportedRejections;
+    private final List<Employee> chunk;
+    private final ImportEmployeesResponse.Builder summary = ImportEmployeesResponse.newBuilder();
+    private boolean failed;
+
+    EmployeeImportObserver(EmployeeCopyWriter copyWriter,
+                           StreamObserver<ImportEmployeesResponse> responseObserver,
+                           int chunkSize,
+                           int maxReportedRejections) {
+        this.copyWriter = copyWriter;
+        this.responseObserver = responseObserver;
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void onNext(ImportEmployeeRecord record) {
+        if (failed) {
+            return;
+        }
+        summary.setReceived(summary.getReceived() + 1);
+
+        String error = validate(record);
+        if (error != null) {
+            reject(record.getLine(), error);
+            return;
+        }
+        chunk.add(new Employee(record.getName().trim(), record.getPosition().trim(),
+                record.getSalary(), LocalDate.parse(record.getHireDate())));
+        if (chunk.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("Импорт прерван клиентом после {} строк: {}", summary.getReceived(), t.getMessage());
+    }
+
+    @Override
+    public void onCompleted() {
+        flush();
+        if (failed) {
+            return;
+        }
+        log.info("Импорт завершён: получено {}, записано {}, отклонено {}",
+                summary.getReceived(), summary.getImported(), summary.getRejected());
+        responseObserver.onNext(summary.build());
+        responseObserver.onCompleted();
+    }
+
+    private void flush() {
+        if (chunk.isEmpty() || failed) {
+            return;
+        }
+        try {
+            long written = copyWriter.copy(chunk);
+            summary.setImported(summary.getImported() + written);
+            log.debug("Записана порция импорта из {} строк", written);
+        } catch (RuntimeException e) {
+            failed = true;
+            log.error("Ошибка записи порции импорта: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Импорт остановлен после " + summary.getImported()
+                            + " записанных строк: " + e.getMessage())
+                    .withCause(e)
+                    .asRuntimeException());
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private void reject(long line, String reason) {
+        summary.setRejected(summary.getRejected() + 1);
+        if (summary.getRejectedRowsCount() < maxReportedRejections) {
+            summary.addRejectedRows(ImportRejectedRow.newBuilder().setLine(line).setReason(reason));
+        }
+    }
+
+    private static String validate(ImportEmployeeRecord record) {
+        if (record.getName().isBlank()) {
+            return "не указано имя";
+        }
+        if (record.getPosition().isBlank()) {
+            return "не указана должность";
+        }
+        if (!Double.isFinite(record.getSalary()) || record.getSalary() < 0) {
+            return "некорректная зарплата: " + record.getSalary();
+        }
+        try {
+            LocalDate.parse(record.getHireDate());
+        } catch (DateTimeParseException e) {
+            return "некорректная дата приёма: " + record.getHireDate();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.grpc;
+
+import org.example.domainservice.EmployeeResponse;
+import org.example.domainservice.PatchEmployeeRequest;
+import org.example.models.Employee;
+import org.example.models.EmployeePatch;
+
+import java.time.LocalDate;
+
+public final class EmployeeProtoMapper {
+
+    private EmployeeProtoMapper() {
+    }
+
+    public static EmployeeResponse toResponse(Employee employee) {
+        return EmployeeResponse.newBuilder()
+                .setId(employee.getId())
+                .setName(employee.getName())
+                .setPosition(employee.getPosition())
+                .setSalary(employee.getSalary())
+                .setHireDate(employee.getHireDate().toString())
+                .build();
+    }
+
+    /**
+     * Поля из updateMask в {@link EmployeePatch}. Пути - имена полей запроса (hireDate или hire_date).
+     */
+    public static EmployeePatch toPatch(PatchEmployeeRequest request) {
+        if (request.getUpdateMask().getPathsCount() == 0) {
+            throw new IllegalArgumentException("updateMask пуст");
+        }
+
+        EmployeePatch patch = new EmployeePatch();
+        for (String path : request.getUpdateMask().getPathsList()) {
+            switch (path) {
+                case "name" -> patch.name(request.getName());
+                case "position" -> patch.position(request.getPosition());
+                case "salary" -> patch.salary(request.getSalary());
+                case "hireDate", "hire_date" -> patch.hireDate(LocalDate.parse(request.getHireDate()));
+                default -> throw new IllegalArgumentException("Неизвестное поле в updateMask: " + path);
+            }
+        }
+        return patch;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.grpc;
+
+import org.example.models.Employee;
+import org.example.models.EmployeeSearchCriteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Токен следующей страницы поиска: сортировка, направление, отпечаток фильтров и ключ последней
+ * выданной строки ("SALARY|ASC|1c291ca3|12345.0|17" в base64url). Привязан к условиям запроса:
+ * с другой сортировкой, направлением или фильтрами не принимается - ключ продолжения из чужой
+ * выборки молча пропустил бы или повторил строки.
+ */
+final class EmployeeSearchPageToken {
+
+    private EmployeeSearchPageToken() {
+    }
+
+    static String encode(EmployeeSearchCriteria criteria, Employee last) {
+        Object value = switch (criteria.getSort()) {
+            case ID -> "";
+            case SALARY -> last.getSalary();
+            case HIRE_DATE -> last.getHireDate();
+        };
+        String token = criteria.getSort().name() + "|" + direction(criteria) + "|" + filtersFingerprint(criteria)
+                + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Проставляет в criteria ключ продолжения из токена. Фильтры и сортировка в criteria
+     * должны быть уже заполнены из запроса.
+     *
+     * @throws IllegalArgumentException если токен повреждён или выдан для других условий поиска
+     */
+    static void apply(String token, EmployeeSearchCriteria criteria) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный pageToken");
+        }
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Некорректный pageToken");
+        }
+        if (!parts[0].equals(criteria.getSort().name()) || !parts[1].equals(direction(criteria))) {
+            throw new IllegalArgumentException("pageToken не соответствует сортировке запроса");
+        }
+        if (!parts[2].equals(filtersFingerprint(criteria))) {
+            throw new IllegalArgumentException("pageToken выдан для других фильтров поиска");
+        }
+
+        try {
+            Object value = switch (criteria.getSort()) {
+                case ID -> null;
+                case SALARY -> Double.valueOf(parts[3]);
+                case HIRE_DATE -> LocalDate.parse(parts[3]);
+            };
+            criteria.setAfter(value, Long.valueOf(parts[4]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный pageToken");
+        }
+    }
+
+    private static String direction(EmployeeSearchCriteria criteria) {
+        return criteria.isDescending() ? "DESC" : "ASC";
+    }
+
+    /**
+     * CRC32 от фильтров запроса: токен остаётся коротким, а случайное совпадение
+     * для разных фильтров практически исключено.
+     */
+    private static String filtersFingerprint(EmployeeSearchCriteria criteria) {
+        String filters = criteria.getPosition() + "\u0000" + criteria.getSalaryMin() + "\u0000" + criteria.getSalaryMax()
+                + "\u0000" + criteria.getHiredFrom() + "\u0000" + criteria.getHiredTo();
+        CRC32 crc = new CRC32();
+        crc.update(filters.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
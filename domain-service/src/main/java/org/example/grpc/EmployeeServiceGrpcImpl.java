@@ -1,13 +1,25 @@
 package org.example.grpc;
 
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.example.domainservice.*;
 import org.example.models.Employee;
+import org.example.models.EmployeePatch;
+import org.example.models.EmployeeSearchCriteria;
+import org.example.repository.EmployeeCopyWriter;
 import org.example.repository.EmployeeRepository;
+import org.example.repository.EmployeeSearchRepository;
+import org.example.service.EmployeeNameIndex;
+import org.example.service.EmployeeService;
+import org.example.service.EmployeeStatsAggregator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -15,11 +27,41 @@ import java.util.Optional;
 @Service
 public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeServiceImplBase {
 
+    private static final int MAX_STREAM_CHUNK_SIZE = 5000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+
     private final EmployeeRepository employeeRepository;
+    private final EmployeeSearchRepository employeeSearchRepository;
+    private final EmployeeService employeeService;
+    private final EmployeeCopyWriter employeeCopyWriter;
+    private final EmployeeStatsAggregator statsAggregator;
+    private final EmployeeNameIndex nameIndex;
+    private final int streamChunkSize;
+    private final int importChunkSize;
+    private final int importMaxReportedRejections;
 
     @Autowired
-    public EmployeeServiceGrpcImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceGrpcImpl(EmployeeRepository employeeRepository,
+                                   EmployeeSearchRepository employeeSearchRepository,
+                                   EmployeeService employeeService,
+                                   EmployeeCopyWriter employeeCopyWriter,
+                                   EmployeeStatsAggregator statsAggregator,
+                                   EmployeeNameIndex nameIndex,
+                                   @Value("${grpc.stream.chunk-size:500}") int streamChunkSize,
+                                   @Value("${import.copy.chunk-size:5000}") int importChunkSize,
+                                   @Value("${import.max-reported-rejections:100}") int importMaxReportedRejections) {
         this.employeeRepository = employeeRepository;
+        this.employeeSearchRepository = employeeSearchRepository;
+        this.employeeService = employeeService;
+        this.employeeCopyWriter = employeeCopyWriter;
+        this.statsAggregator = statsAggregator;
+        this.nameIndex = nameIndex;
+        this.streamChunkSize = streamChunkSize;
+        this.importChunkSize = importChunkSize;
+        this.importMaxReportedRejections = importMaxReportedRejections;
     }
 
     @Override
@@ -27,22 +69,26 @@ public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeService
         Optional<Employee> optionalEmployee = employeeRepository.findById(request.getId());
 
         if (optionalEmployee.isPresent()) {
-            Employee employee = optionalEmployee.get();
-            EmployeeResponse response = EmployeeResponse.newBuilder()
-                    .setId(employee.getId())
-                    .setName(employee.getName())
-                    .setPosition(employee.getPosition())
-                    .setSalary(employee.getSalary())
-                    .setHireDate(employee.getHireDate().toString())
-                    .build();
-
-            responseObserver.onNext(response);
+            responseObserver.onNext(EmployeeProtoMapper.toResponse(optionalEmployee.get()));
         } else {
             responseObserver.onNext(EmployeeResponse.getDefaultInstance());
         }
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void getEmployees(GetEmployeesRequest request, StreamObserver<GetEmployeesResponse> responseObserver) {
+        GetEmployeesResponse.Builder response = GetEmployeesResponse.newBuilder();
+        if (request.getIdsCount() > 0) {
+            for (Employee employee : employeeRepository.findAllById(request.getIdsList())) {
+                response.addEmployees(EmployeeProtoMapper.toResponse(employee));
+            }
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void createEmployee(CreateEmployeeRequest request, StreamObserver<CreateEmployeeResponse> responseObserver) {
         Employee employee = new Employee(
@@ -52,7 +98,7 @@ public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeService
                 LocalDate.parse(request.getHireDate())
         );
 
-        employee = employeeRepository.save(employee);
+        employee = employeeService.saveEmployee(employee);
 
         CreateEmployeeResponse response = CreateEmployeeResponse.newBuilder()
                 .setId(employee.getId())
@@ -64,49 +110,50 @@ public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeService
 
     @Override
     public void updateEmployee(UpdateEmployeeRequest request, StreamObserver<UpdateEmployeeResponse> responseObserver) {
-        Optional<Employee> optionalEmployee = employeeRepository.findById(request.getId());
-
-        if (optionalEmployee.isPresent()) {
-            Employee employee = optionalEmployee.get();
-            employee.setName(request.getName());
-            employee.setPosition(request.getPosition());
-            employee.setSalary(request.getSalary());
-            employee.setHireDate(LocalDate.parse(request.getHireDate()));
+        Employee employee = new Employee(
+                request.getName(),
+                request.getPosition(),
+                request.getSalary(),
+                LocalDate.parse(request.getHireDate())
+        );
 
-            employeeRepository.save(employee);
+        boolean updated = employeeService.updateEmployee(request.getId(), employee).isPresent();
 
-            UpdateEmployeeResponse response = UpdateEmployeeResponse.newBuilder()
-                    .setSuccess(true)
-                    .build();
+        UpdateEmployeeResponse response = UpdateEmployeeResponse.newBuilder()
+                .setSuccess(updated)
+                .build();
 
-            responseObserver.onNext(response);
-        } else {
-            UpdateEmployeeResponse response = UpdateEmployeeResponse.newBuilder()
-                    .setSuccess(false)
-                    .build();
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
 
-            responseObserver.onNext(response);
+    @Override
+    public void patchEmployee(PatchEmployeeRequest request, StreamObserver<PatchEmployeeResponse> responseObserver) {
+        EmployeePatch patch;
+        try {
+            patch = EmployeeProtoMapper.toPatch(request);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
         }
+
+        PatchEmployeeResponse.Builder response = PatchEmployeeResponse.newBuilder();
+        employeeService.patchEmployee(request.getId(), patch)
+                .ifPresent(employee -> response.setFound(true).setEmployee(EmployeeProtoMapper.toResponse(employee)));
+
+        responseObserver.onNext(response.build());
         responseObserver.onCompleted();
     }
 
     @Override
     public void deleteEmployee(DeleteEmployeeRequest request, StreamObserver<DeleteEmployeeResponse> responseObserver) {
-        if (employeeRepository.existsById(request.getId())) {
-            employeeRepository.deleteById(request.getId());
-
-            DeleteEmployeeResponse response = DeleteEmployeeResponse.newBuilder()
-                    .setSuccess(true)
-                    .build();
-
-            responseObserver.onNext(response);
-        } else {
-            DeleteEmployeeResponse response = DeleteEmployeeResponse.newBuilder()
-                    .setSuccess(false)
-                    .build();
+        DeleteEmployeeResponse response = DeleteEmployeeResponse.newBuilder()
+                .setSuccess(employeeService.deleteEmployee(request.getId()))
+                .build();
 
-            responseObserver.onNext(response);
-        }
+        responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
     @Override
@@ -115,14 +162,7 @@ public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeService
 
         List<EmployeeResponse> employeeResponses = new ArrayList<>();
         for (Employee employee : employees) {
-            EmployeeResponse employeeResponse = EmployeeResponse.newBuilder()
-                    .setId(employee.getId())
-                    .setName(employee.getName())
-                    .setPosition(employee.getPosition())
-                    .setSalary(employee.getSalary())
-                    .setHireDate(employee.getHireDate().toString())
-                    .build();
-            employeeResponses.add(employeeResponse);
+            employeeResponses.add(EmployeeProtoMapper.toResponse(employee));
         }
 
         GetAllEmployeesResponse response = GetAllEmployeesResponse.newBuilder()
@@ -133,4 +173,104 @@ public class EmployeeServiceGrpcImpl extends EmployeeServiceGrpc.EmployeeService
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void listEmployees(ListEmployeesRequest request, StreamObserver<ListEmployeesResponse> responseObserver) {
+        int limit = Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE));
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                request.getAfterId(), Limit.of(limit + 1));
+
+        boolean hasMore = employees.size() > limit;
+        ListEmployeesResponse.Builder response = ListEmployeesResponse.newBuilder()
+                .setHasMore(hasMore);
+        for (Employee employee : hasMore ? employees.subList(0, limit) : employees) {
+            response.addEmployees(EmployeeProtoMapper.toResponse(employee));
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void searchEmployees(SearchEmployeesRequest request, StreamObserver<SearchEmployeesResponse> responseObserver) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria();
+        try {
+            if (!request.getPosition().isEmpty()) {
+                criteria.setPosition(request.getPosition());
+            }
+            if (request.hasSalaryMin()) {
+                criteria.setSalaryMin(request.getSalaryMin());
+            }
+            if (request.hasSalaryMax()) {
+                criteria.setSalaryMax(request.getSalaryMax());
+            }
+            if (!request.getHiredFrom().isEmpty()) {
+                criteria.setHiredFrom(LocalDate.parse(request.getHiredFrom()));
+            }
+            if (!request.getHiredTo().isEmpty()) {
+                criteria.setHiredTo(LocalDate.parse(request.getHiredTo()));
+            }
+            criteria.setSort(switch (request.getSortBy()) {
+                case SALARY -> EmployeeSearchCriteria.Sort.SALARY;
+                case HIRE_DATE -> EmployeeSearchCriteria.Sort.HIRE_DATE;
+                default -> EmployeeSearchCriteria.Sort.ID;
+            });
+            criteria.setDescending(request.getDescending());
+            if (!request.getPageToken().isEmpty()) {
+                EmployeeSearchPageToken.apply(request.getPageToken(), criteria);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        int limit = request.getLimit() > 0 ? Math.min(request.getLimit(), MAX_PAGE_SIZE) : DEFAULT_SEARCH_PAGE_SIZE;
+        criteria.setLimit(limit + 1);
+        List<Employee> employees = employeeSearchRepository.search(criteria);
+
+        SearchEmployeesResponse.Builder response = SearchEmployeesResponse.newBuilder();
+        boolean hasMore = employees.size() > limit;
+        List<Employee> page = hasMore ? employees.subList(0, limit) : employees;
+        for (Employee employee : page) {
+            response.addEmployees(EmployeeProtoMapper.toResponse(employee));
+        }
+        if (hasMore) {
+            response.setNextPageToken(EmployeeSearchPageToken.encode(criteria, page.get(limit - 1)));
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void streamEmployees(StreamEmployeesRequest request, StreamObserver<EmployeeChunk> responseObserver) {
+        ServerCallStreamObserver<EmployeeChunk> serverObserver = (ServerCallStreamObserver<EmployeeChunk>) responseObserver;
+        int chunkSize = request.getChunkSize() > 0
+                ? Math.min(request.getChunkSize(), MAX_STREAM_CHUNK_SIZE)
+                : streamChunkSize;
+
+        EmployeeChunkStreamer streamer = new EmployeeChunkStreamer(
+                employeeSearchRepository, serverObserver, request.getAfterId(), chunkSize);
+        serverObserver.setOnCancelHandler(streamer::cancel);
+        serverObserver.setOnReadyHandler(streamer);
+    }
+
+    @Override
+    public StreamObserver<ImportEmployeeRecord> importEmployees(StreamObserver<ImportEmployeesResponse> responseObserver) {
+        return new EmployeeImportObserver(employeeCopyWriter, responseObserver, importChunkSize, importMaxReportedRejections);
+    }
+
+    @Override
+    public void getEmployeeStats(GetEmployeeStatsRequest request, StreamObserver<EmployeeStatsResponse> responseObserver) {
+        responseObserver.onNext(statsAggregator.snapshot());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void suggestEmployees(SuggestEmployeesRequest request, StreamObserver<SuggestEmployeesResponse> responseObserver) {
+        int limit = request.getLimit() > 0 ? Math.min(request.getLimit(), MAX_SUGGEST_LIMIT) : DEFAULT_SUGGEST_LIMIT;
+        responseObserver.onNext(nameIndex.suggest(request.getQuery(), limit));
+        responseObserver.onCompleted();
+    }
 }
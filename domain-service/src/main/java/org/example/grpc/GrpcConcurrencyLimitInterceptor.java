@@ -0,0 +1,86 @@
+package org.example.grpc;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение числа одновременно выполняемых вызовов на весь сервер (grpc.server.max-concurrent-calls).
+ * <p>
+ * Вызов сверх предела сразу закрывается со статусом RESOURCE_EXHAUSTED - клиент получает понятный
+ * ответ, который можно повторить, а не обрыв потока из-за отказа executor'а. Разрешение занимается
+ * до обработчика и возвращается по завершении или отмене вызова, в том числе потокового.
+ */
+@Component
+@Order(2)
+public class GrpcConcurrencyLimitInterceptor implements ServerInterceptor {
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+
+    public GrpcConcurrencyLimitInterceptor(@Value("${grpc.server.max-concurrent-calls:200}") int maxConcurrentCalls,
+                                           MeterRegistry meterRegistry) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(Math.max(maxConcurrentCalls, 0));
+        Gauge.builder("grpc.server.calls.active", permits, p -> maxConcurrentCalls - p.availablePermits())
+                .description("Вызовы, выполняемые сейчас в пределах grpc.server.max-concurrent-calls")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (maxConcurrentCalls <= 0) {
+            return next.startCall(call, headers);
+        }
+        if (!permits.tryAcquire()) {
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription(
+                    "Сервер обрабатывает " + maxConcurrentCalls + " вызовов, повторите позже"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(call, headers);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    release.run();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    release.run();
+                }
+            }
+        };
+    }
+}
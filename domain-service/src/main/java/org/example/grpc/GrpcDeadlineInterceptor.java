@@ -0,0 +1,111 @@
+package org.example.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение времени жизни вызова на стороне сервера.
+ * <p>
+ * Унарные вызовы получают серверный дедлайн grpc.server.max-call-duration-ms (или дедлайн клиента,
+ * если он раньше). Вызов, дедлайн которого истёк или который клиент уже отменил, не передаётся
+ * в обработчик: пока он ждал свободного потока в очереди executor'а, клиент перестал ждать ответа,
+ * и соединение с базой ему брать незачем. Потоковые вызовы серверным дедлайном не ограничиваются -
+ * они сами останавливаются по отмене клиентом.
+ */
+@Component
+@Order(3)
+public class GrpcDeadlineInterceptor implements ServerInterceptor, DisposableBean {
+    private final long maxCallDurationMs;
+    private final ScheduledExecutorService scheduler;
+
+    public GrpcDeadlineInterceptor(@Value("${grpc.server.max-call-duration-ms:30000}") long maxCallDurationMs) {
+        this.maxCallDurationMs = maxCallDurationMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grpc-deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        Context context = Context.current();
+        Deadline deadline = context.getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            call.close(Status.DEADLINE_EXCEEDED.withDescription("Дедлайн истёк до начала обработки"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        if (call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY || maxCallDurationMs <= 0) {
+            return next.startCall(call, headers);
+        }
+
+        Deadline serverDeadline = Deadline.after(maxCallDurationMs, TimeUnit.MILLISECONDS);
+        if (deadline != null && deadline.isBefore(serverDeadline)) {
+            serverDeadline = deadline;
+        }
+        Context.CancellableContext callContext = context.withDeadline(serverDeadline, scheduler);
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = Contexts.interceptCall(callContext, call, headers, next);
+        } catch (RuntimeException e) {
+            callContext.cancel(e);
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onHalfClose() {
+                // Унарный обработчик вызывается здесь, в потоке executor'а
+                if (callContext.isCancelled()) {
+                    if (!call.isCancelled()) {
+                        call.close(Status.DEADLINE_EXCEEDED.withDescription(
+                                "Дедлайн истёк в очереди на обработку"), new Metadata());
+                    }
+                    return;
+                }
+                super.onHalfClose();
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    callContext.cancel(null);
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    callContext.cancel(null);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * gRPC-сервер domain-service в жизненном цикле Spring: запускается после инициализации контекста,
+ * а при остановке сначала перестаёт принимать новые вызовы и ждёт завершения начатых
+ * (grpc.server.shutdown-grace-ms), и только потом закрывается пул соединений с базой.
+ * <p>
+ * Вызовы выполняются на пуле из threads потоков (grpc.server.executor=bounded) с неограниченной очередью:
+ * отказ executor'а оборвал бы поток вызова без статуса, поэтому лишние вызовы отсекает
+ * {@link GrpcConcurrencyLimitInterceptor} со статусом RESOURCE_EXHAUSTED, а очередь держит только
+ * принятые вызовы и их сообщения. При grpc.server.executor=virtual каждый вызов получает свой
+ * виртуальный поток (Java 21+), а параллелизм ограничивают тот же перехватчик и пул соединений Hikari.
+ */
+@Component
+@ConditionalOnProperty(name = "grpc.server.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final ObjectProvider<BindableService> services;
+    private final ObjectProvider<ServerInterceptor> interceptors;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${grpc.server.port:9091}")
+    private int port;
+
+    @Value("${grpc.server.executor:bounded}")
+    private String executorType;
+
+    @Value("${grpc.server.executor.threads:16}")
+    private int executorThreads;
+
+    @Value("${grpc.server.max-concurrent-calls-per-connection:100}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${grpc.server.flow-control-window-bytes:1048576}")
+    private int flowControlWindow;
+
+    @Value("${grpc.server.max-inbound-message-size-bytes:8388608}")
+    private int maxInboundMessageSize;
+
+    @Value("${grpc.server.keepalive-time-ms:60000}")
+    private long keepAliveTimeMs;
+
+    @Value("${grpc.server.keepalive-timeout-ms:20000}")
+    private long keepAliveTimeoutMs;
+
+    @Value("${grpc.server.permit-keepalive-time-ms:30000}")
+    private long permitKeepAliveTimeMs;
+
+    @Value("${grpc.server.shutdown-grace-ms:20000}")
+    private long shutdownGraceMs;
+
+    private ExecutorService executor;
+    private volatile Server server;
+
+    public GrpcServerLifecycle(ObjectProvider<BindableService> services,
+                               ObjectProvider<ServerInterceptor> interceptors,
+                               MeterRegistry meterRegistry) {
+        this.services = services;
+        this.interceptors = interceptors;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, createExecutor(), "grpc.server.executor");
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                .flowControlWindow(flowControlWindow)
+                .maxInboundMessageSize(maxInboundMessageSize)
+                .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(permitKeepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true);
+        services.orderedStream().forEach(builder::addService);
+        intercept(builder, interceptors);
+
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Не удалось запустить gRPC-сервер на порту " + port, e);
+        }
+        log.info("gRPC-сервер запущен на порту {}", server.getPort());
+
+        // Потоки Netty - демоны; этот поток держит JVM, пока сервер работает
+        Thread awaitThread = new Thread(() -> {
+            try {
+                server.awaitTermination();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "grpc-server-await");
+        awaitThread.setDaemon(false);
+        awaitThread.start();
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        log.info("Остановка gRPC-сервера: ожидание завершения начатых вызовов до {} мс", shutdownGraceMs);
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Вызовы не завершились за {} мс и будут прерваны", shutdownGraceMs);
+                current.shutdownNow();
+                current.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Подключает перехватчики в порядке @Order: первый по порядку вызывается первым.
+     * ServerBuilder вызывает первым последний добавленный, поэтому они добавляются с конца.
+     */
+    public static void intercept(ServerBuilder<?> builder, ObjectProvider<ServerInterceptor> interceptors) {
+        List<ServerInterceptor> ordered = interceptors.orderedStream().toList();
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            builder.intercept(ordered.get(i));
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        if ("virtual".equalsIgnoreCase(executorType)) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                log.info("gRPC-вызовы выполняются на виртуальных потоках");
+                return virtual;
+            }
+        }
+        log.info("gRPC-вызовы выполняются на пуле из {} потоков", executorThreads);
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(executorThreads, executorThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "grpc-exec-" + counter.incrementAndGet()));
+    }
+
+    /**
+     * Виртуальные потоки доступны начиная с Java 21; на более старых JVM возвращает null.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Виртуальные потоки недоступны в Java {}, используется обычный пул", Runtime.version().feature());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.grpc;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Метрики вызовов gRPC-сервера: время от получения вызова до его закрытия, число выполняющихся
+ * вызовов и завершения по кодам статуса. Вызов, отменённый клиентом до ответа, считается с кодом CANCELLED.
+ * Стоит первым в цепочке, чтобы учитывать и вызовы, отклонённые следующими перехватчиками.
+ */
+@Component
+@Order(1)
+public class GrpcServerMetricsInterceptor implements ServerInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        CallRecorder recorder = new CallRecorder(
+                meters.computeIfAbsent(method.getFullMethodName(), name -> new MethodMeters(method)));
+
+        ServerCall<ReqT, RespT> monitoredCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                recorder.finish(status.getCode());
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(monitoredCall, headers);
+        } catch (RuntimeException e) {
+            recorder.finish(Status.Code.UNKNOWN);
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                recorder.finish(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    private static final class CallRecorder {
+        private final MethodMeters meters;
+        private final long started = System.nanoTime();
+        // close и onCancel приходят из разных потоков, учитывается первое из них
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private CallRecorder(MethodMeters meters) {
+            this.meters = meters;
+            meters.inFlight.incrementAndGet();
+        }
+
+        private void finish(Status.Code code) {
+            if (finished.compareAndSet(false, true)) {
+                meters.inFlight.decrementAndGet();
+                meters.record(code, System.nanoTime() - started);
+            }
+        }
+    }
+
+    private final class MethodMeters {
+        private final String service;
+        private final String method;
+        private final Timer latency;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Счётчики по кодам статуса создаются при первом появлении кода
+        private final Counter[] byStatus = new Counter[Status.Code.values().length];
+
+        private MethodMeters(MethodDescriptor<?, ?> descriptor) {
+            this.service = descriptor.getServiceName();
+            this.method = descriptor.getBareMethodName();
+            this.latency = Timer.builder("grpc.server.call.latency")
+                    .description("Время обработки вызова от получения до отправки статуса")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("type", descriptor.getType().name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("grpc.server.calls.inflight", inFlight, AtomicInteger::get)
+                    .description("Выполняющиеся вызовы")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        private void record(Status.Code code, long nanos) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            Counter counter = byStatus[code.ordinal()];
+            if (counter == null) {
+                counter = Counter.builder("grpc.server.calls")
+                        .description("Завершённые вызовы по кодам статуса")
+                        .tag("service", service)
+                        .tag("method", method)
+                        .tag("status", code.name())
+                        .register(meterRegistry);
+                byStatus[code.ordinal()] = counter;
+            }
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.models.EmployeeCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.function.Consumer;
+
+/**
+ * Команды, которые не удаётся применить. Ошибка самой команды (нарушение ограничения, неверные данные)
+ * повторяется до rabbitmq.listener.retry.max-attempts раз с удваивающейся паузой, после чего исходное
+ * сообщение публикуется в очередь недоставленных (rabbitmq.listener.dead-letter-queue) с описанием
+ * ошибки в заголовках - и не задерживает остальные команды.
+ * <p>
+ * Недоступность базы или Redis - не вина команды: такие ошибки повторяются, пока не пройдут,
+ * иначе за время сбоя вся очередь ушла бы в недоставленные. Порядок команд при этом сохраняется -
+ * следующие ждут.
+ */
+@Component
+public class CommandDeadLetters {
+    private static final Logger log = LoggerFactory.getLogger(CommandDeadLetters.class);
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String queue;
+    private final String deadLetterQueue;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long confirmTimeoutMs;
+    private final Counter deadLettered;
+
+    public CommandDeadLetters(RabbitTemplate rabbitTemplate,
+                              MeterRegistry meterRegistry,
+                              @Qualifier("deadLetterQueue") Queue deadLetterQueue,
+                              @Value("${rabbitmq.queue:employeeQueue}") String queue,
+                              @Value("${rabbitmq.listener.retry.max-attempts:3}") int maxAttempts,
+                              @Value("${rabbitmq.listener.retry.backoff-ms:100}") long backoffMs,
+                              @Value("${rabbitmq.listener.retry.max-backoff-ms:5000}") long maxBackoffMs,
+                              @Value("${rabbitmq.listener.dead-letter.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.queue = queue;
+        this.deadLetterQueue = deadLetterQueue.getName();
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.deadLettered = Counter.builder("rabbitmq.listener.dead-lettered")
+                .description("Сообщения, отправленные в очередь недоставленных")
+                .tag("queue", queue)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Применяет команду с повторами; команду, которая так и не применилась, отправляет в очередь
+     * недоставленных.
+     *
+     * @return true, если команда применена, false - если отправлена в очередь недоставленных
+     * @throws ImmediateRequeueAmqpException если поток прерван или очередь недоставленных недоступна -
+     *                                       сообщение нужно вернуть в очередь
+     */
+    public boolean applyOrDeadLetter(Message message, EmployeeCommand command, Consumer<EmployeeCommand> apply) {
+        long pause = backoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                apply.accept(command);
+                return true;
+            } catch (RuntimeException e) {
+                boolean transientFailure = isTransient(e);
+                if (!transientFailure && attempt >= maxAttempts) {
+                    log.error("Команда {} не применена за {} попыток и отправлена в {}: {}",
+                            command, attempt, deadLetterQueue, e.getMessage(), e);
+                    deadLetter(message, e);
+                    return false;
+                }
+                log.warn("Попытка {} применить команду {} не удалась ({}), повтор через {} мс",
+                        attempt, command, e.getMessage(), pause);
+            }
+            sleep(pause);
+            pause = Math.min(pause * 2, maxBackoffMs);
+        }
+    }
+
+    /**
+     * Публикует исходное сообщение в очередь недоставленных с ожиданием подтверждения брокера.
+     *
+     * @throws ImmediateRequeueAmqpException если брокер не подтвердил публикацию
+     */
+    public void deadLetter(Message message, Exception cause) {
+        String reason = String.valueOf(cause.getMessage());
+        Message deadLetter = MessageBuilder.fromMessage(message)
+                .setHeader("x-original-queue", queue)
+                .setHeader("x-exception-type", cause.getClass().getName())
+                .setHeader("x-exception-message",
+                        reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason)
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                operations.send("", deadLetterQueue, deadLetter);
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw new ImmediateRequeueAmqpException("Не удалось отправить сообщение в " + deadLetterQueue, e);
+        }
+        deadLettered.increment();
+    }
+
+    private static boolean isTransient(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImmediateRequeueAmqpException("Повтор команды прерван остановкой");
+        }
+    }
+}
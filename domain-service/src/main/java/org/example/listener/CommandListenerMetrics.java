@@ -0,0 +1,80 @@
+package org.example.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общие метрики обработки очереди команд для всех режимов слушателя (тег mode):
+ * время применения команд, отставание от момента публикации в gateway и глубина очереди.
+ */
+@Component
+public class CommandListenerMetrics {
+    private final Timer processing;
+    private final Timer lag;
+    private final Counter processed;
+
+    public CommandListenerMetrics(MeterRegistry meterRegistry,
+                                  AmqpAdmin amqpAdmin,
+                                  @Value("${rabbitmq.listener.mode:single}") String mode,
+                                  @Value("${rabbitmq.queue:employeeQueue}") String queue) {
+        this.processing = Timer.builder("rabbitmq.listener.processing")
+                .description("Время применения команды или пакета команд")
+                .tag("mode", mode)
+                .tag("queue", queue)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lag = Timer.builder("rabbitmq.listener.lag")
+                .description("Время от публикации команды в gateway до её применения")
+                .tag("mode", mode)
+                .tag("queue", queue)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processed = Counter.builder("rabbitmq.listener.messages")
+                .description("Обработанные сообщения очереди команд")
+                .tag("mode", mode)
+                .tag("queue", queue)
+                .register(meterRegistry);
+        // Глубина читается у брокера при каждом снятии метрик; недоступный брокер даёт NaN
+        Gauge.builder("rabbitmq.listener.queue.depth", amqpAdmin, admin -> queueDepth(admin, queue))
+                .description("Сообщения в очереди команд, ещё не выданные потребителям")
+                .tag("queue", queue)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Учитывает применение messages сообщений, начатое в startedNanos (System.nanoTime).
+     */
+    public void recordProcessing(long startedNanos, int messages) {
+        processing.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        processed.increment(messages);
+    }
+
+    public void recordLag(Message message) {
+        recordLag(message.getMessageProperties().getTimestamp());
+    }
+
+    public void recordLag(Date published) {
+        if (published != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - published.getTime()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static double queueDepth(AmqpAdmin admin, String queue) {
+        try {
+            QueueInformation info = admin.getQueueInfo(queue);
+            return info == null ? Double.NaN : info.getMessageCount();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+}
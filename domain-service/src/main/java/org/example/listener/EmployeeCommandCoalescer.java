@@ -0,0 +1,56 @@
+package org.example.listener;
+
+import org.example.models.EmployeeCommand;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Схлопывает команды одного пакета: из подряд идущих обновлений сотрудника остаётся последнее,
+ * удаление отменяет ожидающие обновления. Порядок команд разных сотрудников сохраняется.
+ * <p>
+ * Обновление после удаления остаётся отдельной командой (и ничего не найдёт).
+ */
+class EmployeeCommandCoalescer {
+
+    private EmployeeCommandCoalescer() {
+    }
+
+    static List<EmployeeCommand> coalesce(List<EmployeeCommand> commands) {
+        List<EmployeeCommand> result = new ArrayList<>(commands.size());
+        Map<Long, Integer> pendingIndex = new HashMap<>();
+
+        for (EmployeeCommand command : commands) {
+            Long id = command.getId();
+            Integer index = id != null ? pendingIndex.get(id) : null;
+            EmployeeCommand pending = index != null ? result.get(index) : null;
+
+            if (pending == null || command.getType() == EmployeeCommand.Type.CREATE) {
+                add(result, pendingIndex, command);
+            } else if (command.getType() == EmployeeCommand.Type.UPDATE) {
+                if (pending.getType() == EmployeeCommand.Type.UPDATE) {
+                    result.set(index, command);
+                } else {
+                    add(result, pendingIndex, command);
+                }
+            } else if (pending.getType() != EmployeeCommand.Type.DELETE) {
+                // Удаление отменяет ожидающее обновление; повторное удаление просто отбрасывается
+                result.set(index, null);
+                add(result, pendingIndex, command);
+            }
+        }
+
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+
+    private static void add(List<EmployeeCommand> result, Map<Long, Integer> pendingIndex, EmployeeCommand command) {
+        if (command.getId() != null) {
+            pendingIndex.put(command.getId(), result.size());
+        }
+        result.add(command);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.listener;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import org.example.domainservice.CreateEmployeeCommand;
+import org.example.domainservice.EmployeeCommandMessage;
+import org.example.domainservice.UpdateEmployeeCommand;
+import org.example.models.EmployeeCommand;
+import org.springframework.amqp.core.Message;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Декодирует сообщения из employeeQueue. Сообщения с content-type application/x-protobuf
+ * разбираются напрямую из тела AMQP-сообщения (без промежуточной строки и копии массива),
+ * всё остальное считается старым текстовым форматом и передаётся в {@link EmployeeCommandParser}.
+ * messageId сообщения становится commandId команды - по нему отсеиваются повторные доставки.
+ */
+@Component
+public class EmployeeCommandDecoder {
+    public static final String CONTENT_TYPE_PROTOBUF = "application/x-protobuf";
+
+    private final EmployeeCommandParser textParser;
+
+    public EmployeeCommandDecoder(EmployeeCommandParser textParser) {
+        this.textParser = textParser;
+    }
+
+    public EmployeeCommand decode(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        EmployeeCommand command = contentType != null && contentType.startsWith(CONTENT_TYPE_PROTOBUF)
+                ? decodeProtobuf(message.getBody())
+                : textParser.parse(new String(message.getBody(), StandardCharsets.UTF_8));
+        String messageId = message.getMessageProperties().getMessageId();
+        return messageId == null ? command : command.withCommandId(messageId);
+    }
+
+    private EmployeeCommand decodeProtobuf(byte[] body) {
+        EmployeeCommandMessage command;
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(body);
+            input.enableAliasing(true);
+            command = EmployeeCommandMessage.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректная protobuf-команда: " + e.getMessage(), e);
+        }
+
+        switch (command.getCommandCase()) {
+            case CREATE: {
+                CreateEmployeeCommand create = command.getCreate();
+                return EmployeeCommand.create(
+                        create.getName(),
+                        create.getPosition(),
+                        create.hasSalary() ? create.getSalary() : null,
+                        create.hasHireDateEpochDay() ? LocalDate.ofEpochDay(create.getHireDateEpochDay()) : null);
+            }
+            case UPDATE: {
+                UpdateEmployeeCommand update = command.getUpdate();
+                return EmployeeCommand.update(
+                        update.getId(),
+                        update.getName(),
+                        update.getPosition(),
+                        update.hasSalary() ? update.getSalary() : null,
+                        update.hasHireDateEpochDay() ? LocalDate.ofEpochDay(update.getHireDateEpochDay()) : null);
+            }
+            case DELETE:
+                return EmployeeCommand.delete(command.getDelete().getId());
+            default:
+                throw new IllegalArgumentException("Пустая команда: " + command.getCommandId());
+        }
+    }
+}
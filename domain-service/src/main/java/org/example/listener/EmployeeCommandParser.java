@@ -0,0 +1,44 @@
+package org.example.listener;
+
+import org.example.models.EmployeeCommand;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Разбор текстового формата команд: "CREATE:name,position,salary,hireDate",
+ * "UPDATE:id,name,position,salary,hireDate", "DELETE:id".
+ */
+@Component
+public class EmployeeCommandParser {
+
+    public EmployeeCommand parse(String message) {
+        String[] parts = message.split(":");
+        String operation = parts[0];
+
+        switch (operation) {
+            case "CREATE":
+                String[] createParts = parts[1].split(",");
+                return EmployeeCommand.create(
+                        createParts[0],
+                        createParts[1],
+                        Double.parseDouble(createParts[2]),
+                        LocalDate.parse(createParts[3]));
+
+            case "UPDATE":
+                String[] updateInfo = parts[1].split(",");
+                return EmployeeCommand.update(
+                        Long.parseLong(updateInfo[0]),
+                        updateInfo[1],
+                        updateInfo[2],
+                        Double.parseDouble(updateInfo[3]),
+                        LocalDate.parse(updateInfo[4]));
+
+            case "DELETE":
+                return EmployeeCommand.delete(Long.parseLong(parts[1]));
+
+            default:
+                throw new IllegalArgumentException("Неизвестная операция: " + operation);
+        }
+    }
+}
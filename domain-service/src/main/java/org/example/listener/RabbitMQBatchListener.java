@@ -0,0 +1,118 @@
+package org.example.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.models.EmployeeCommand;
+import org.example.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетный режим: контейнер собирает до rabbitmq.listener.batch.size сообщений
+ * (или сколько успело прийти за receive-timeout), они применяются в одной транзакции
+ * и подтверждаются вместе.
+ * <p>
+ * Если включено rabbitmq.listener.coalesce.enabled, команды пакета предварительно схлопываются
+ * ({@link EmployeeCommandCoalescer}) - в базу пишется только итоговое состояние сотрудника.
+ * <p>
+ * Если пакет не применился, транзакция откатывается целиком, и команды применяются по одной в исходном
+ * порядке: та, что не проходит и после повторов, уходит в очередь недоставленных ({@link CommandDeadLetters}),
+ * остальные применяются. Некорректные сообщения отправляются туда же сразу.
+ */
+@Component
+@ConditionalOnProperty(name = "rabbitmq.listener.mode", havingValue = "batch")
+public class RabbitMQBatchListener {
+    private static final Logger log = LoggerFactory.getLogger(RabbitMQBatchListener.class);
+
+    private final EmployeeService employeeService;
+    private final EmployeeCommandDecoder commandDecoder;
+    private final CommandListenerMetrics metrics;
+    private final CommandDeadLetters deadLetters;
+    private final boolean coalesce;
+    private final Counter coalesced;
+
+    public RabbitMQBatchListener(EmployeeService employeeService,
+                                 EmployeeCommandDecoder commandDecoder,
+                                 CommandListenerMetrics metrics,
+                                 CommandDeadLetters deadLetters,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${rabbitmq.listener.coalesce.enabled:true}") boolean coalesce) {
+        this.employeeService = employeeService;
+        this.commandDecoder = commandDecoder;
+        this.metrics = metrics;
+        this.deadLetters = deadLetters;
+        this.coalesce = coalesce;
+        this.coalesced = Counter.builder("rabbitmq.listener.commands.coalesced")
+                .description("Команды, поглощённые более поздними командами того же сотрудника")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = "employeeQueue", containerFactory = "batchListenerContainerFactory")
+    public void handleBatch(List<Message> messages) {
+        long started = System.nanoTime();
+        List<Message> decodedMessages = new ArrayList<>(messages.size());
+        List<EmployeeCommand> commands = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                commands.add(commandDecoder.decode(message));
+                decodedMessages.add(message);
+            } catch (RuntimeException e) {
+                // Тело сообщения содержит персональные данные, в лог попадают только свойства
+                log.warn("Некорректное сообщение отправлено в очередь недоставленных: {} ({})",
+                        message.getMessageProperties(), e.getMessage());
+                deadLetters.deadLetter(message, e);
+            }
+        }
+
+        List<EmployeeCommand> batch = commands;
+        if (coalesce) {
+            batch = EmployeeCommandCoalescer.coalesce(commands);
+        }
+
+        try {
+            employeeService.applyCommands(batch, absorbedCommandIds(commands, batch));
+            coalesced.increment(commands.size() - batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} команд не применён ({}), команды применяются по одной", commands.size(), e.getMessage());
+            batch = commands;
+            for (int i = 0; i < commands.size(); i++) {
+                deadLetters.applyOrDeadLetter(decodedMessages.get(i), commands.get(i), employeeService::applyCommand);
+            }
+        }
+        metrics.recordProcessing(started, messages.size());
+        for (Message message : messages) {
+            metrics.recordLag(message);
+        }
+        log.info("Обработан пакет из {} сообщений ({} записей в базу) за {} мс",
+                messages.size(), batch.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * commandId команд, поглощённых при схлопывании: они отмечаются применёнными вместе с пакетом.
+     */
+    private static List<String> absorbedCommandIds(List<EmployeeCommand> commands, List<EmployeeCommand> batch) {
+        if (commands.size() == batch.size()) {
+            return List.of();
+        }
+        Set<EmployeeCommand> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(batch);
+        List<String> absorbed = new ArrayList<>();
+        for (EmployeeCommand command : commands) {
+            if (!kept.contains(command) && command.getCommandId() != null) {
+                absorbed.add(command.getCommandId());
+            }
+        }
+        return absorbed;
+    }
+}
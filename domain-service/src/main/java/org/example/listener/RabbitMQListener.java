@@ -1,29 +1,37 @@
 package org.example.listener;
 
 import com.rabbitmq.client.Channel;
-import org.example.models.Employee;
+import org.example.models.EmployeeCommand;
 import org.example.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-
 @Component
+@ConditionalOnProperty(name = "rabbitmq.listener.mode", havingValue = "single", matchIfMissing = true)
 public class RabbitMQListener {
+    private static final Logger log = LoggerFactory.getLogger(RabbitMQListener.class);
 
     private final EmployeeService employeeService;
+    private final EmployeeCommandDecoder commandDecoder;
+    private final CommandListenerMetrics metrics;
 
-    public RabbitMQListener(EmployeeService employeeService) {
+    public RabbitMQListener(EmployeeService employeeService, EmployeeCommandDecoder commandDecoder,
+                            CommandListenerMetrics metrics) {
         this.employeeService = employeeService;
+        this.commandDecoder = commandDecoder;
+        this.metrics = metrics;
     }
 
     // Вариант 1: Базовый вариант без задержки
 
     @RabbitListener(queues = "employeeQueue")
-    public void handleMessage(String message) {
-        System.out.println("Received message: " + message);
+    public void handleMessage(Message message) {
         processMessage(message);
     }
 
@@ -42,36 +50,19 @@ public class RabbitMQListener {
     */
 
 
-    private void processMessage(String message) {
-        String[] parts = message.split(":");
-        String operation = parts[0];
-
-        switch (operation) {
-            case "CREATE":
-                String[] createParts = parts[1].split(",");
-                Employee newEmployee = new Employee();
-                newEmployee.setName(createParts[0]);
-                newEmployee.setPosition(createParts[1]);
-                newEmployee.setSalary(Double.parseDouble(createParts[2]));
-                newEmployee.setHireDate(LocalDate.parse(createParts[3]));
-                employeeService.saveEmployee(newEmployee);
-                break;
-
-            case "UPDATE":
-                String[] updateInfo = parts[1].split(",");
-                Long id = Long.parseLong(updateInfo[0]);
-                Employee updateEmployee = new Employee();
-                updateEmployee.setId(id);
-                updateEmployee.setName(updateInfo[1]);
-                updateEmployee.setPosition(updateInfo[2]);
-                updateEmployee.setSalary(Double.parseDouble(updateInfo[3]));
-                updateEmployee.setHireDate(LocalDate.parse(updateInfo[4]));
-                employeeService.saveEmployee(updateEmployee);
-                break;
-
-            case "DELETE":
-                employeeService.deleteEmployee(Long.parseLong(parts[1]));
-                break;
+    private void processMessage(Message message) {
+        EmployeeCommand command;
+        try {
+            command = commandDecoder.decode(message);
+        } catch (RuntimeException e) {
+            // Тело сообщения содержит персональные данные, в лог попадают только свойства
+            log.warn("Пропущено некорректное сообщение: {} ({})", message.getMessageProperties(), e.getMessage());
+            return;
         }
+        log.debug("Получена команда {} для сотрудника с ID: {}", command.getType(), command.getId());
+        long started = System.nanoTime();
+        employeeService.applyCommand(command);
+        metrics.recordProcessing(started, 1);
+        metrics.recordLag(message);
     }
 }
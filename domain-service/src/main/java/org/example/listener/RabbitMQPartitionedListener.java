@@ -0,0 +1,184 @@
+package org.example.listener;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.example.models.EmployeeCommand;
+import org.example.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Режим с дорожками: один потребитель читает очередь и раскладывает команды по N однопоточным
+ * дорожкам по хэшу ID сотрудника. Команды разных сотрудников применяются параллельно, команды
+ * одного сотрудника - строго в порядке очереди. Сообщение подтверждается после применения,
+ * число неподтверждённых ограничено prefetch.
+ * <p>
+ * Команда, которая не применилась, повторяется в своей дорожке с растущей паузой и при необходимости
+ * уходит в очередь недоставленных ({@link CommandDeadLetters}); следующие команды дорожки ждут, поэтому
+ * порядок команд сотрудника не нарушается, как было бы при возврате сообщения в хвост очереди.
+ * Подтверждения отправляет один поток: канал потребителя общий для всех дорожек, а Channel
+ * не рассчитан на одновременные вызовы из нескольких потоков.
+ */
+@Component
+@ConditionalOnProperty(name = "rabbitmq.listener.mode", havingValue = "partitioned")
+public class RabbitMQPartitionedListener {
+    private static final Logger log = LoggerFactory.getLogger(RabbitMQPartitionedListener.class);
+
+    private final EmployeeService employeeService;
+    private final EmployeeCommandDecoder commandDecoder;
+    private final CommandListenerMetrics metrics;
+    private final CommandDeadLetters deadLetters;
+    private final ThreadPoolExecutor[] lanes;
+    private final ExecutorService acks;
+    private final Timer[] laneWait;
+    private final Timer[] laneLag;
+    // Команды создания ещё без ID - распределяются по кругу
+    private final AtomicInteger nextCreateLane = new AtomicInteger();
+
+    public RabbitMQPartitionedListener(EmployeeService employeeService,
+                                       EmployeeCommandDecoder commandDecoder,
+                                       CommandListenerMetrics metrics,
+                                       CommandDeadLetters deadLetters,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${rabbitmq.listener.partitioned.lanes:4}") int laneCount) {
+        this.employeeService = employeeService;
+        this.commandDecoder = commandDecoder;
+        this.metrics = metrics;
+        this.deadLetters = deadLetters;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.acks = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "employee-lane-acks"));
+        this.laneWait = new Timer[laneCount];
+        this.laneLag = new Timer[laneCount];
+
+        for (int i = 0; i < laneCount; i++) {
+            String lane = String.valueOf(i);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(runnable, "employee-lane-" + lane));
+            Gauge.builder("rabbitmq.listener.lane.pending", lanes[i], executor -> executor.getQueue().size())
+                    .description("Команды, ожидающие применения в дорожке")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            laneWait[i] = Timer.builder("rabbitmq.listener.lane.wait")
+                    .description("Время от получения команды из очереди до её применения")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            laneLag[i] = Timer.builder("rabbitmq.listener.lane.lag")
+                    .description("Время от публикации команды в gateway до её применения")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+        log.info("Очередь команд обрабатывается в {} дорожках", laneCount);
+    }
+
+    @RabbitListener(queues = "employeeQueue", containerFactory = "partitionedListenerContainerFactory")
+    public void handleMessage(Message message, Channel channel, @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        EmployeeCommand command;
+        try {
+            command = commandDecoder.decode(message);
+        } catch (RuntimeException e) {
+            // Тело сообщения содержит персональные данные, в лог попадают только свойства
+            log.warn("Некорректное сообщение отправлено в очередь недоставленных: {} ({})",
+                    message.getMessageProperties(), e.getMessage());
+            try {
+                deadLetters.deadLetter(message, e);
+                ack(channel, deliveryTag);
+            } catch (AmqpException deadLetterError) {
+                requeue(channel, deliveryTag, deadLetterError);
+            }
+            return;
+        }
+
+        int lane = laneOf(command);
+        long received = System.nanoTime();
+        lanes[lane].execute(() -> apply(message, command, lane, received, channel, deliveryTag));
+    }
+
+    private int laneOf(EmployeeCommand command) {
+        if (command.getId() == null) {
+            return Math.floorMod(nextCreateLane.getAndIncrement(), lanes.length);
+        }
+        return Math.floorMod(Long.hashCode(command.getId()), lanes.length);
+    }
+
+    private void apply(Message message, EmployeeCommand command, int lane, long received,
+                       Channel channel, long deliveryTag) {
+        try {
+            long started = System.nanoTime();
+            if (deadLetters.applyOrDeadLetter(message, command, employeeService::applyCommand)) {
+                Date published = message.getMessageProperties().getTimestamp();
+                metrics.recordProcessing(started, 1);
+                metrics.recordLag(published);
+                laneWait[lane].record(System.nanoTime() - received, TimeUnit.NANOSECONDS);
+                if (published != null) {
+                    laneLag[lane].record(Math.max(0, System.currentTimeMillis() - published.getTime()),
+                            TimeUnit.MILLISECONDS);
+                }
+            }
+            ack(channel, deliveryTag);
+        } catch (AmqpException e) {
+            requeue(channel, deliveryTag, e);
+        }
+    }
+
+    private void ack(Channel channel, long deliveryTag) {
+        acks.execute(() -> {
+            try {
+                channel.basicAck(deliveryTag, false);
+            } catch (IOException e) {
+                // Канал закрыт - брокер повторно доставит неподтверждённое сообщение
+                log.warn("Не удалось подтвердить сообщение {}: {}", deliveryTag, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Последнее средство, когда недоступна и очередь недоставленных или дорожка остановлена:
+     * сообщение возвращается брокеру и может прийти позже следующих команд того же сотрудника.
+     */
+    private void requeue(Channel channel, long deliveryTag, AmqpException cause) {
+        log.error("Сообщение {} возвращено в очередь: {}", deliveryTag, cause.getMessage());
+        acks.execute(() -> {
+            try {
+                channel.basicNack(deliveryTag, false, true);
+            } catch (IOException e) {
+                log.warn("Не удалось вернуть сообщение {} в очередь: {}", deliveryTag, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            // Дорожка может повторять команду, пока недоступна база: прерывание вернёт её в очередь
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+        acks.shutdown();
+        acks.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
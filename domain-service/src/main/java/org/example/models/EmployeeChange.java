@@ -0,0 +1,31 @@
+package org.example.models;
+
+/**
+ * Изменение сотрудника внутри транзакции записи: состояние до и после
+ * (before пусто при создании, after - при удалении). Публикуется как событие приложения,
+ * слушатели получают его после коммита.
+ */
+public class EmployeeChange {
+    private final Employee before;
+    private final Employee after;
+
+    private EmployeeChange(Employee before, Employee after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static EmployeeChange created(Employee employee) {
+        return new EmployeeChange(null, employee);
+    }
+
+    public static EmployeeChange updated(Employee before, Employee after) {
+        return new EmployeeChange(before, after);
+    }
+
+    public static EmployeeChange deleted(Employee employee) {
+        return new EmployeeChange(employee, null);
+    }
+
+    public Employee getBefore() { return before; }
+    public Employee getAfter() { return after; }
+}
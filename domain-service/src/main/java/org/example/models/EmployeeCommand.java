@@ -0,0 +1,77 @@
+package org.example.models;
+
+import java.time.LocalDate;
+
+/**
+ * Команда изменения сотрудника, полученная из очереди.
+ */
+public class EmployeeCommand {
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    private final Type type;
+    private final Long id;
+    private final String name;
+    private final String position;
+    private final Double salary;
+    private final LocalDate hireDate;
+    // messageId сообщения: по нему отсеиваются повторные доставки (null - без проверки)
+    private final String commandId;
+
+    private EmployeeCommand(Type type, Long id, String name, String position, Double salary, LocalDate hireDate) {
+        this(type, id, name, position, salary, hireDate, null);
+    }
+
+    private EmployeeCommand(Type type, Long id, String name, String position, Double salary, LocalDate hireDate,
+                            String commandId) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.position = position;
+        this.salary = salary;
+        this.hireDate = hireDate;
+        this.commandId = commandId;
+    }
+
+    public static EmployeeCommand create(String name, String position, Double salary, LocalDate hireDate) {
+        return new EmployeeCommand(Type.CREATE, null, name, position, salary, hireDate);
+    }
+
+    public static EmployeeCommand update(Long id, String name, String position, Double salary, LocalDate hireDate) {
+        return new EmployeeCommand(Type.UPDATE, id, name, position, salary, hireDate);
+    }
+
+    public static EmployeeCommand delete(Long id) {
+        return new EmployeeCommand(Type.DELETE, id, null, null, null, null);
+    }
+
+    public EmployeeCommand withCommandId(String commandId) {
+        return new EmployeeCommand(type, id, name, position, salary, hireDate, commandId);
+    }
+
+    public Employee toEmployee() {
+        Employee employee = new Employee(name, position, salary, hireDate);
+        employee.setId(id);
+        return employee;
+    }
+
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getPosition() { return position; }
+    public Double getSalary() { return salary; }
+    public LocalDate getHireDate() { return hireDate; }
+    public String getCommandId() { return commandId; }
+
+    @Override
+    public String toString() {
+        return "EmployeeCommand{" +
+                "type=" + type +
+                ", commandId=" + commandId +
+                ", id=" + id +
+                ", name='" + name + '\'' +
+                ", position='" + position + '\'' +
+                ", salary=" + salary +
+                ", hireDate=" + hireDate +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Запись transactional outbox: событие об изменении сотрудника, сохранённое в той же
+ * транзакции, что и само изменение. Публикуется EmployeeOutboxRelay после коммита.
+ * <p>
+ * Id - версия события для gateway: relay публикует записи по возрастанию id. Id выдаются диапазонами
+ * по allocationSize на экземпляр, поэтому вставка идёт одним пакетом с изменением сотрудника, а id
+ * растут в порядке записи в пределах экземпляра domain-service.
+ */
+@Entity
+@Table(name = "employee_outbox")
+public class EmployeeOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_outbox_seq")
+    @SequenceGenerator(name = "employee_outbox_seq", sequenceName = "employee_outbox_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+    @Column(name = "event_type", nullable = false, length = 16)
+    private String eventType;
+    @Column(nullable = false)
+    private byte[] payload;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public EmployeeOutboxEvent() {}
+
+    public EmployeeOutboxEvent(Long employeeId, String eventType, byte[] payload) {
+        this.employeeId = employeeId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public Long getEmployeeId() { return employeeId; }
+    public String getEventType() { return eventType; }
+    public byte[] getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
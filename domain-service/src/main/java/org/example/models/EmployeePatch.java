@@ -0,0 +1,51 @@
+package org.example.models;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Набор изменяемых полей сотрудника для точечного UPDATE: в запрос попадают только заданные колонки.
+ */
+public class EmployeePatch {
+    public enum Field {
+        NAME("name"), POSITION("position"), SALARY("salary"), HIRE_DATE("hire_date");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+
+        public String column() { return column; }
+    }
+
+    private final Map<Field, Object> values = new EnumMap<>(Field.class);
+
+    public static EmployeePatch of(Employee employee) {
+        return new EmployeePatch()
+                .name(employee.getName())
+                .position(employee.getPosition())
+                .salary(employee.getSalary())
+                .hireDate(employee.getHireDate());
+    }
+
+    public EmployeePatch name(String name) { return set(Field.NAME, name); }
+    public EmployeePatch position(String position) { return set(Field.POSITION, position); }
+    public EmployeePatch salary(Double salary) { return set(Field.SALARY, salary); }
+    public EmployeePatch hireDate(LocalDate hireDate) { return set(Field.HIRE_DATE, hireDate); }
+
+    public boolean isEmpty() { return values.isEmpty(); }
+    public Map<Field, Object> values() { return Collections.unmodifiableMap(values); }
+
+    private EmployeePatch set(Field field, Object value) {
+        values.put(field, value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeePatch" + values;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.models;
+
+import java.time.LocalDate;
+
+/**
+ * Условия поиска сотрудников. Незаданные (null) фильтры не применяются.
+ * afterValue/afterId - ключ последней строки предыдущей страницы.
+ */
+public class EmployeeSearchCriteria {
+    public enum Sort {
+        ID("id"), SALARY("salary"), HIRE_DATE("hire_date");
+
+        private final String column;
+
+        Sort(String column) {
+            this.column = column;
+        }
+
+        public String column() { return column; }
+    }
+
+    private String position;
+    private Double salaryMin;
+    private Double salaryMax;
+    private LocalDate hiredFrom;
+    private LocalDate hiredTo;
+    private Sort sort = Sort.ID;
+    private boolean descending;
+    private int limit;
+    private Object afterValue;
+    private Long afterId;
+
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+    public Double getSalaryMin() { return salaryMin; }
+    public void setSalaryMin(Double salaryMin) { this.salaryMin = salaryMin; }
+    public Double getSalaryMax() { return salaryMax; }
+    public void setSalaryMax(Double salaryMax) { this.salaryMax = salaryMax; }
+    public LocalDate getHiredFrom() { return hiredFrom; }
+    public void setHiredFrom(LocalDate hiredFrom) { this.hiredFrom = hiredFrom; }
+    public LocalDate getHiredTo() { return hiredTo; }
+    public void setHiredTo(LocalDate hiredTo) { this.hiredTo = hiredTo; }
+    public Sort getSort() { return sort; }
+    public void setSort(Sort sort) { this.sort = sort; }
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+    public Object getAfterValue() { return afterValue; }
+    public Long getAfterId() { return afterId; }
+
+    public void setAfter(Object afterValue, Long afterId) {
+        this.afterValue = afterValue;
+        this.afterId = afterId;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.repository;
+
+import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.postgresql.PGConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Массовая запись сотрудников через COPY ... FROM STDIN.
+ * Id берутся из employees_seq блоками по {@link #ID_BLOCK_SIZE}, так же как их резервирует
+ * pooled-оптимизатор Hibernate: значение v последовательности закрепляет диапазон (v - 50, v].
+ */
+@Repository
+public class EmployeeCopyWriter {
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String COPY_SQL =
+            "COPY employees (id, name, position, salary, hire_date) FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EmployeeCopyWriter(DataSource dataSource, JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Записывает сотрудников одной командой COPY в текущей транзакции и проставляет им id.
+     */
+    @Transactional
+    public long copy(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        assignIds(employees);
+
+        StringBuilder csv = new StringBuilder(employees.size() * 64);
+        for (Employee employee : employees) {
+            csv.append(employee.getId()).append(',');
+            appendQuoted(csv, employee.getName()).append(',');
+            appendQuoted(csv, employee.getPosition()).append(',');
+            csv.append(employee.getSalary()).append(',');
+            csv.append(employee.getHireDate()).append('\n');
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            long copied = connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(COPY_SQL, new StringReader(csv.toString()));
+            for (Employee employee : employees) {
+                eventPublisher.publishEvent(EmployeeChange.created(employee));
+            }
+            return copied;
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Ошибка COPY в таблицу employees: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void assignIds(List<Employee> employees) {
+        int blocks = (employees.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> highValues = jdbcTemplate.queryForList(
+                "SELECT nextval('employees_seq') FROM generate_series(1, ?)", Long.class, blocks);
+
+        int index = 0;
+        for (Long high : highValues) {
+            for (long id = high - ID_BLOCK_SIZE + 1; id <= high && index < employees.size(); id++) {
+                employees.get(index++).setId(id);
+            }
+        }
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.repository;
+
+import org.example.models.EmployeeOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmployeeOutboxRepository extends JpaRepository<EmployeeOutboxEvent, Long> {
+
+    /**
+     * Следующая порция неопубликованных событий в порядке записи. SKIP LOCKED позволяет
+     * нескольким экземплярам domain-service разбирать outbox без взаимных блокировок.
+     */
+    @Query(value = "SELECT * FROM employee_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmployeeOutboxEvent> lockNextBatch(@Param("limit") int limit);
+}
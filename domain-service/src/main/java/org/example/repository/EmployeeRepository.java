@@ -1,9 +1,19 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.models.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-}
\ No newline at end of file
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+}
@@ -0,0 +1,111 @@
+package org.example.repository;
+
+import org.example.models.Employee;
+import org.example.models.EmployeeSearchCriteria;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поиск сотрудников: все фильтры и продолжение страницы уходят в WHERE, сортировка - (колонка, id).
+ * Продолжение записано сравнением строк (col, id) &gt; (:afterValue, :afterId), которое PostgreSQL
+ * выполняет как диапазон по составным индексам из V2__employee_search_indexes.sql.
+ */
+@Repository
+public class EmployeeSearchRepository {
+    private static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER = (rs, rowNum) -> {
+        Employee employee = new Employee(
+                rs.getString("name"),
+                rs.getString("position"),
+                rs.getObject("salary", Double.class),
+                rs.getObject("hire_date", LocalDate.class));
+        employee.setId(rs.getLong("id"));
+        return employee;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EmployeeSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Порция StreamEmployees: до chunkSize сотрудников с id больше afterId по возрастанию id.
+     * Размер выборки драйвера равен размеру порции - порция приходит из базы за один обмен.
+     */
+    public List<Employee> findChunkAfter(long afterId, int chunkSize) {
+        return jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, name, position, salary, hire_date FROM employees WHERE id > ? ORDER BY id LIMIT ?");
+            statement.setLong(1, afterId);
+            statement.setInt(2, chunkSize);
+            statement.setFetchSize(chunkSize);
+            return statement;
+        }, EMPLOYEE_ROW_MAPPER);
+    }
+
+    /**
+     * Возвращает до criteria.limit сотрудников в порядке сортировки.
+     */
+    public List<Employee> search(EmployeeSearchCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (criteria.getPosition() != null) {
+            conditions.add("position = :position");
+            params.addValue("position", criteria.getPosition());
+        }
+        if (criteria.getSalaryMin() != null) {
+            conditions.add("salary >= :salaryMin");
+            params.addValue("salaryMin", criteria.getSalaryMin());
+        }
+        if (criteria.getSalaryMax() != null) {
+            conditions.add("salary <= :salaryMax");
+            params.addValue("salaryMax", criteria.getSalaryMax());
+        }
+        if (criteria.getHiredFrom() != null) {
+            conditions.add("hire_date >= :hiredFrom");
+            params.addValue("hiredFrom", criteria.getHiredFrom());
+        }
+        if (criteria.getHiredTo() != null) {
+            conditions.add("hire_date <= :hiredTo");
+            params.addValue("hiredTo", criteria.getHiredTo());
+        }
+
+        EmployeeSearchCriteria.Sort sort = criteria.getSort();
+        String comparison = criteria.isDescending() ? "<" : ">";
+        String direction = criteria.isDescending() ? "DESC" : "ASC";
+        String orderBy;
+        if (sort == EmployeeSearchCriteria.Sort.ID) {
+            orderBy = "id " + direction;
+            if (criteria.getAfterId() != null) {
+                conditions.add("id " + comparison + " :afterId");
+                params.addValue("afterId", criteria.getAfterId());
+            }
+        } else {
+            // NULL не сравнивается в ключе продолжения, поэтому строки без значения исключаются сразу
+            conditions.add(sort.column() + " IS NOT NULL");
+            orderBy = sort.column() + " " + direction + ", id " + direction;
+            if (criteria.getAfterId() != null) {
+                conditions.add("(" + sort.column() + ", id) " + comparison + " (:afterValue, :afterId)");
+                params.addValue("afterValue", criteria.getAfterValue());
+                params.addValue("afterId", criteria.getAfterId());
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT id, name, position, salary, hire_date FROM employees");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT :limit");
+        params.addValue("limit", criteria.getLimit());
+
+        return jdbcTemplate.query(sql.toString(), params, EMPLOYEE_ROW_MAPPER);
+    }
+}
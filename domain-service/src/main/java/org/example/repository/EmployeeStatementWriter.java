@@ -0,0 +1,111 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.example.models.EmployeePatch;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Изменение и удаление сотрудника одним SQL-выражением без предварительного SELECT:
+ * найден ли сотрудник, видно по строке из RETURNING.
+ * <p>
+ * Перед выражением Hibernate сбрасывает ожидающие изменения Employee, а после него копия
+ * сотрудника в контексте персистентности отсоединяется, чтобы она не перезаписала результат.
+ */
+@Repository
+public class EmployeeStatementWriter {
+    private static final String RETURNING_COLUMNS = "e.id, e.name, e.position, e.salary, e.hire_date";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * UPDATE employees SET &lt;только заданные колонки&gt; WHERE id = ? RETURNING ...
+     * Прежние значения читаются в подзапросе, блокирующем ту же строку, - в том же выражении.
+     *
+     * @return сотрудник до и после изменения или пусто, если сотрудника нет
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<EmployeeChange> update(Long id, EmployeePatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Нет полей для обновления");
+        }
+
+        StringJoiner sql = new StringJoiner(", ", "UPDATE employees e SET ",
+                " FROM (SELECT * FROM employees WHERE id = :id FOR UPDATE) prev WHERE e.id = prev.id" +
+                " RETURNING " + RETURNING_COLUMNS + ", prev.name AS old_name, prev.position AS old_position," +
+                " prev.salary AS old_salary, prev.hire_date AS old_hire_date");
+        for (EmployeePatch.Field field : patch.values().keySet()) {
+            sql.add(field.column() + " = :" + field.column());
+        }
+
+        NativeQuery<?> query = employeeQuery(sql.toString())
+                .addScalar("old_name", String.class)
+                .addScalar("old_position", String.class)
+                .addScalar("old_salary", Double.class)
+                .addScalar("old_hire_date", LocalDate.class)
+                .setParameter("id", id);
+        for (Map.Entry<EmployeePatch.Field, Object> value : patch.values().entrySet()) {
+            query.setParameter(value.getKey().column(), value.getValue());
+        }
+
+        List<?> rows = query.getResultList();
+        detach(id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) rows.get(0);
+        Employee after = toEmployee(row);
+        Employee before = new Employee((String) row[5], (String) row[6], (Double) row[7], (LocalDate) row[8]);
+        before.setId(after.getId());
+        return Optional.of(EmployeeChange.updated(before, after));
+    }
+
+    /**
+     * DELETE FROM employees WHERE id = ? RETURNING ...
+     *
+     * @return удалённый сотрудник или пусто, если его не было
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Employee> delete(Long id) {
+        List<?> rows = employeeQuery("DELETE FROM employees e WHERE e.id = :id RETURNING " + RETURNING_COLUMNS)
+                .setParameter("id", id)
+                .getResultList();
+        detach(id);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(toEmployee((Object[]) rows.get(0)));
+    }
+
+    private NativeQuery<?> employeeQuery(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Employee.class)
+                .addScalar("id", Long.class)
+                .addScalar("name", String.class)
+                .addScalar("position", String.class)
+                .addScalar("salary", Double.class)
+                .addScalar("hire_date", LocalDate.class);
+    }
+
+    private static Employee toEmployee(Object[] row) {
+        Employee employee = new Employee((String) row[1], (String) row[2], (Double) row[3], (LocalDate) row[4]);
+        employee.setId((Long) row[0]);
+        return employee;
+    }
+
+    private void detach(Long id) {
+        // getReference не обращается к базе: возвращает уже загруженный экземпляр или прокси
+        entityManager.detach(entityManager.getReference(Employee.class, id));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Журнал применённых команд (processed_commands) для отсева повторных доставок.
+ * Отметка делается в транзакции применения команды: откат снимает и её. Запросы идут через JDBC,
+ * а не через EntityManager: нативный запрос Hibernate сбросил бы ожидающие вставки пакета по одной.
+ */
+@Repository
+public class ProcessedCommandRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedCommandRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return true, если команда отмечена впервые, false - если она уже применялась
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean markProcessed(String commandId) {
+        return jdbcTemplate.update(
+                "INSERT INTO processed_commands (command_id) VALUES (?) ON CONFLICT DO NOTHING", commandId) == 1;
+    }
+
+    /**
+     * Отмечает команды пакета одним запросом.
+     * JDBC-пакет здесь не подходит: с reWriteBatchedInserts драйвер не сообщает, какие строки вставлены.
+     *
+     * @return commandId, отмеченные впервые; остальные уже применялись
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<String> markProcessed(Collection<String> commandIds) {
+        if (commandIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<String> marked = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO processed_commands (command_id) SELECT unnest(?::varchar[]) "
+                            + "ON CONFLICT DO NOTHING RETURNING command_id");
+            statement.setArray(1, connection.createArrayOf("varchar", commandIds.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getString(1));
+        return new HashSet<>(marked);
+    }
+
+    /**
+     * Отмечает команды, поглощённые другими при схлопывании пакета, одним JDBC-пакетом: их повторная
+     * доставка не должна откатить сотрудника к промежуточному состоянию.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markAllProcessed(Collection<String> commandIds) {
+        if (commandIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(commandIds.size());
+        for (String commandId : commandIds) {
+            rows.add(new Object[]{commandId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO processed_commands (command_id) VALUES (?) ON CONFLICT DO NOTHING", rows);
+    }
+
+    @Transactional
+    public int deleteProcessedBefore(Instant threshold) {
+        return jdbcTemplate.update("DELETE FROM processed_commands WHERE processed_at < ?", Timestamp.from(threshold));
+    }
+}
@@ -0,0 +1,591 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.domainservice.EmployeeSuggestion;
+import org.example.domainservice.SuggestEmployeesResponse;
+import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс подсказок по имени и должности сотрудника в памяти.
+ * <p>
+ * Каждая строка - документ с номером (позиция в массивах). Тексты нормализуются (нижний регистр,
+ * ё -> е, слова через один пробел), каждое слово раскладывается на триграммы с двумя пробелами
+ * в начале ("  ив", " ив", "ива", ...), так что первые одна-две буквы слова тоже ищутся по триграмме.
+ * Для каждой триграммы хранится возрастающий int[] номеров документов. Запрос - пересечение
+ * списков, затем проверка кандидатов по тексту и выбор top-K.
+ * <p>
+ * Строится при старте проходом по таблице порциями по id, дальше обновляется событиями
+ * {@link EmployeeChange} после коммита. Изменённый сотрудник получает новый номер документа,
+ * старый помечается удалённым; при накоплении удалённых индекс уплотняется.
+ */
+@Component
+public class EmployeeNameIndex implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeNameIndex.class);
+
+    private static final String SCAN_SQL = "SELECT id, name, position FROM employees WHERE id > ? ORDER BY id LIMIT ?";
+    private static final int SCAN_CHUNK_SIZE = 10_000;
+    private static final long DELETED = -1;
+    private static final int COMPACT_MIN_DELETED = 1024;
+    // отдельные списки для первых триграмм слов имени: триграмма занимает биты 0-47, семейство - старшие
+    private static final long NAME_WORD = 1L << 48;
+    private static final long FIRST_NAME_WORD = 1L << 49;
+    private static final int WORD_PREFIX_TRIGRAMS = 3;
+    // заголовки int[] и Postings, узел HashMap и ключ Long на одну триграмму
+    private static final int POSTINGS_OVERHEAD_BYTES = 96;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer suggestTimer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] positions = new String[1024];
+    private String[] nameKeys = new String[1024];
+    private String[] positionKeys = new String[1024];
+    private int size;
+    private int deleted;
+    private final LongIntMap docsById = new LongIntMap();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // должностей немного, одинаковые строки хранятся в одном экземпляре
+    private final Map<String, String> canonicalStrings = new HashMap<>();
+    private long textBytes;
+    private long postingSlots;
+
+    public EmployeeNameIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.suggestTimer = Timer.builder("employees.suggest.duration")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("employees.suggest.index.rows", this, index -> index.read(index::liveRows))
+                .register(meterRegistry);
+        Gauge.builder("employees.suggest.index.bytes", this, index -> index.read(index::estimatedBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            int loaded;
+            do {
+                long lastId = size == 0 ? 0 : ids[size - 1];
+                int before = size;
+                jdbcTemplate.query(SCAN_SQL, rs -> {
+                    add(rs.getLong("id"), rs.getString("name"), rs.getString("position"));
+                }, lastId, SCAN_CHUNK_SIZE);
+                loaded = size - before;
+            } while (loaded == SCAN_CHUNK_SIZE);
+
+            long bytes = estimatedBytes();
+            log.info("Индекс подсказок построен за {} мс: {} сотрудников, {} триграмм, ~{} КБ (~{} байт на сотрудника)",
+                    (System.nanoTime() - started) / 1_000_000, size, postings.size(), bytes / 1024,
+                    size == 0 ? 0 : bytes / size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onChange(EmployeeChange change) {
+        Employee before = change.getBefore();
+        Employee after = change.getAfter();
+        // изменение только зарплаты или даты приёма индекс не затрагивает
+        if (before != null && after != null
+                && Objects.equals(before.getName(), after.getName())
+                && Objects.equals(before.getPosition(), after.getPosition())) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (before != null) {
+                remove(before.getId());
+            }
+            if (after != null) {
+                add(after.getId(), after.getName(), after.getPosition());
+            }
+            if (deleted >= COMPACT_MIN_DELETED && deleted * 4L > size) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * До limit сотрудников, у которых каждое слово запроса входит в имя или должность.
+     * Выше - имя начинается с первого слова, затем все слова совпадают с началами слов имени,
+     * затем остальные; внутри группы - в порядке добавления в индекс.
+     * <p>
+     * Группы выбираются отдельными проходами по своим спискам триграмм, каждый проход
+     * останавливается, как только набрано limit сотрудников, поэтому время не зависит
+     * от того, сколько всего строк подходит под короткий запрос.
+     */
+    public SuggestEmployeesResponse suggest(String query, int limit) {
+        long started = System.nanoTime();
+        String[] tokens = tokens(normalize(query));
+        SuggestEmployeesResponse.Builder response = SuggestEmployeesResponse.newBuilder();
+        if (tokens.length == 0 || limit <= 0) {
+            return response.build();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] found = new int[limit];
+            int count = 0;
+            for (int tier = 0; tier <= 2 && count < limit; tier++) {
+                List<Postings> lists = tierPostings(tokens, tier);
+                if (lists != null) {
+                    count = collect(lists, tokens, tier, found, count);
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                int doc = found[i];
+                response.addSuggestions(EmployeeSuggestion.newBuilder()
+                        .setId(ids[doc])
+                        .setName(names[doc] == null ? "" : names[doc])
+                        .setPosition(positions[doc] == null ? "" : positions[doc]));
+            }
+            return response.build();
+        } finally {
+            lock.readLock().unlock();
+            suggestTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Списки, пересечение которых содержит всех кандидатов группы; null, если какой-то триграммы нет.
+     */
+    private List<Postings> tierPostings(String[] tokens, int tier) {
+        List<Long> trigrams = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            if (tier == 0 && i == 0) {
+                addPrefixTrigrams(trigrams, tokens[i], FIRST_NAME_WORD);
+            } else if (tier == 1) {
+                addPrefixTrigrams(trigrams, tokens[i], NAME_WORD);
+            }
+            addQueryTrigrams(trigrams, tokens[i]);
+        }
+
+        List<Postings> lists = new ArrayList<>(trigrams.size());
+        for (long trigram : trigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return null;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        return lists;
+    }
+
+    /**
+     * Обходит пересечение списков по возрастанию номеров и дописывает в found документы нужной группы.
+     * По самому короткому списку идём подряд, в остальных ищем тот же номер с растущим шагом.
+     */
+    private int collect(List<Postings> lists, String[] tokens, int tier, int[] found, int count) {
+        Postings driver = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < driver.size; i++) {
+            int doc = driver.docs[i];
+            for (int l = 1; l < lists.size(); l++) {
+                Postings list = lists.get(l);
+                cursors[l] = list.seek(cursors[l], doc);
+                if (cursors[l] == list.size) {
+                    break candidates;
+                }
+                if (list.docs[cursors[l]] != doc) {
+                    continue candidates;
+                }
+            }
+            if (ids[doc] != DELETED && tier(doc, tokens) == tier) {
+                found[count++] = doc;
+                if (count == found.length) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void add(long id, String name, String position) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            nameKeys = Arrays.copyOf(nameKeys, capacity);
+            positionKeys = Arrays.copyOf(positionKeys, capacity);
+        }
+        int doc = size++;
+        ids[doc] = id;
+        names[doc] = name;
+        positions[doc] = position == null ? null : canonical(position);
+        nameKeys[doc] = normalize(name);
+        positionKeys[doc] = canonical(normalize(position));
+        textBytes += stringBytes(name) + stringBytes(nameKeys[doc]);
+        docsById.put(id, doc);
+        indexWords(nameKeys[doc], doc);
+        indexWords(positionKeys[doc], doc);
+        indexNameWordPrefixes(nameKeys[doc], doc);
+    }
+
+    private void remove(long id) {
+        int doc = docsById.remove(id);
+        if (doc < 0) {
+            return;
+        }
+        textBytes -= stringBytes(names[doc]) + stringBytes(nameKeys[doc]);
+        ids[doc] = DELETED;
+        names[doc] = null;
+        positions[doc] = null;
+        nameKeys[doc] = null;
+        positionKeys[doc] = null;
+        deleted++;
+    }
+
+    private void compact() {
+        long started = System.nanoTime();
+        postings.clear();
+        postingSlots = 0;
+        int live = 0;
+        for (int doc = 0; doc < size; doc++) {
+            if (ids[doc] == DELETED) {
+                continue;
+            }
+            ids[live] = ids[doc];
+            names[live] = names[doc];
+            positions[live] = positions[doc];
+            nameKeys[live] = nameKeys[doc];
+            positionKeys[live] = positionKeys[doc];
+            docsById.put(ids[live], live);
+            indexWords(nameKeys[live], live);
+            indexWords(positionKeys[live], live);
+            indexNameWordPrefixes(nameKeys[live], live);
+            live++;
+        }
+        Arrays.fill(names, live, size, null);
+        Arrays.fill(positions, live, size, null);
+        Arrays.fill(nameKeys, live, size, null);
+        Arrays.fill(positionKeys, live, size, null);
+        log.info("Индекс подсказок уплотнён за {} мс: удалено {} документов, осталось {}",
+                (System.nanoTime() - started) / 1_000_000, deleted, live);
+        size = live;
+        deleted = 0;
+    }
+
+    private void indexWords(String key, int doc) {
+        char prev2 = ' ';
+        char prev1 = ' ';
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == ' ') {
+                prev2 = ' ';
+                prev1 = ' ';
+                continue;
+            }
+            Postings list = postings.computeIfAbsent(trigram(prev2, prev1, c), trigram -> new Postings());
+            postingSlots += list.add(doc);
+            prev2 = prev1;
+            prev1 = c;
+        }
+    }
+
+    private void indexNameWordPrefixes(String nameKey, int doc) {
+        int word = 0;
+        int position = 0;
+        char prev2 = ' ';
+        char prev1 = ' ';
+        for (int i = 0; i < nameKey.length(); i++) {
+            char c = nameKey.charAt(i);
+            if (c == ' ') {
+                word++;
+                position = 0;
+                prev2 = ' ';
+                prev1 = ' ';
+                continue;
+            }
+            if (position++ < WORD_PREFIX_TRIGRAMS) {
+                long trigram = trigram(prev2, prev1, c);
+                postingSlots += postings.computeIfAbsent(NAME_WORD | trigram, key -> new Postings()).add(doc);
+                if (word == 0) {
+                    postingSlots += postings.computeIfAbsent(FIRST_NAME_WORD | trigram, key -> new Postings()).add(doc);
+                }
+            }
+            prev2 = prev1;
+            prev1 = c;
+        }
+    }
+
+    /**
+     * Группа документа для запроса или -1, если какое-то слово запроса в нём не встречается
+     * (пересечение триграмм даёт надмножество: триграммы могут прийти из разных мест текста).
+     */
+    private int tier(int doc, String[] tokens) {
+        String nameKey = nameKeys[doc];
+        String positionKey = positionKeys[doc];
+        boolean allAtNameWordStart = true;
+        for (String token : tokens) {
+            boolean atNameWordStart = hasWordStartingWith(nameKey, token);
+            boolean found = token.length() < 3
+                    ? atNameWordStart || hasWordStartingWith(positionKey, token)
+                    : atNameWordStart || nameKey.contains(token) || positionKey.contains(token);
+            if (!found) {
+                return -1;
+            }
+            allAtNameWordStart &= atNameWordStart;
+        }
+        if (nameKey.startsWith(tokens[0])) {
+            return 0;
+        }
+        return allAtNameWordStart ? 1 : 2;
+    }
+
+    private static void addQueryTrigrams(List<Long> trigrams, String token) {
+        if (token.length() == 1) {
+            trigrams.add(trigram(' ', ' ', token.charAt(0)));
+        } else if (token.length() == 2) {
+            trigrams.add(trigram(' ', token.charAt(0), token.charAt(1)));
+        } else {
+            for (int i = 2; i < token.length(); i++) {
+                trigrams.add(trigram(token.charAt(i - 2), token.charAt(i - 1), token.charAt(i)));
+            }
+        }
+    }
+
+    private static void addPrefixTrigrams(List<Long> trigrams, String token, long family) {
+        char prev2 = ' ';
+        char prev1 = ' ';
+        for (int i = 0; i < Math.min(token.length(), WORD_PREFIX_TRIGRAMS); i++) {
+            trigrams.add(family | trigram(prev2, prev1, token.charAt(i)));
+            prev2 = prev1;
+            prev1 = token.charAt(i);
+        }
+    }
+
+    private static long trigram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static boolean hasWordStartingWith(String key, String token) {
+        int start = 0;
+        while (true) {
+            if (key.startsWith(token, start)) {
+                return true;
+            }
+            int space = key.indexOf(' ', start);
+            if (space < 0) {
+                return false;
+            }
+            start = space + 1;
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                separator = false;
+            } else if (!separator) {
+                normalized.append(' ');
+                separator = true;
+            }
+        }
+        if (separator && normalized.length() > 0) {
+            normalized.setLength(normalized.length() - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private String canonical(String value) {
+        return canonicalStrings.computeIfAbsent(value, key -> key);
+    }
+
+    private <T> T read(Supplier<T> supplier) {
+        lock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int liveRows() {
+        return size - deleted;
+    }
+
+    /**
+     * Приблизительный объём: массивы документов, строки имён (исходные и нормализованные),
+     * списки триграмм и таблица id -> документ. Должности общие и не учитываются.
+     */
+    private long estimatedBytes() {
+        long documents = (long) ids.length * (8 + 4 * 4);
+        long postingBytes = postingSlots * 4 + (long) postings.size() * POSTINGS_OVERHEAD_BYTES;
+        return documents + textBytes + postingBytes + docsById.bytes();
+    }
+
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long array = 16 + (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + ((array + 7) & ~7L);
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        /**
+         * Номера документов добавляются по возрастанию; повтор последнего пропускается.
+         * Возвращает, на сколько выросла ёмкость массива.
+         */
+        private int add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return 0;
+            }
+            int grown = 0;
+            if (size == docs.length) {
+                grown = docs.length >> 1;
+                docs = Arrays.copyOf(docs, docs.length + grown);
+            }
+            docs[size++] = doc;
+            return grown;
+        }
+
+        /**
+         * Первая позиция не раньше from с номером не меньше doc (или size).
+         */
+        private int seek(int from, int doc) {
+            if (from >= size || docs[from] >= doc) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && docs[low + step] < doc) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(docs, low + 1, Math.min(low + step + 1, size), doc);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    /**
+     * id -> номер документа на массивах с открытой адресацией, без упаковки в Long/Integer.
+     * id сотрудников положительны, 0 обозначает пустую ячейку.
+     */
+    private static final class LongIntMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            int value = values[i];
+            // сдвигаем следующие элементы цепочки на освободившееся место, чтобы не оставлять надгробий
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (keys[j] == 0) {
+                    break;
+                }
+                int home = slot(keys[j], mask);
+                boolean homeBetween = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!homeBetween) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = 0;
+            size--;
+            return value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private long bytes() {
+            return (long) keys.length * 12;
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
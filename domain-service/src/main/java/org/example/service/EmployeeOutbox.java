@@ -0,0 +1,48 @@
+package org.example.service;
+
+import org.example.domainservice.EmployeeChangedEvent;
+import org.example.grpc.EmployeeProtoMapper;
+import org.example.models.Employee;
+import org.example.models.EmployeeOutboxEvent;
+import org.example.repository.EmployeeOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Записывает события об изменении сотрудников в outbox. Вызывается только внутри
+ * транзакции изменения, чтобы событие и строка сотрудника фиксировались атомарно.
+ * Версия события (id записи outbox) проставляется при публикации.
+ */
+@Component
+public class EmployeeOutbox {
+    private final EmployeeOutboxRepository outboxRepository;
+
+    public EmployeeOutbox(EmployeeOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSaved(Employee employee, boolean created) {
+        EmployeeChangedEvent.ChangeType type = created
+                ? EmployeeChangedEvent.ChangeType.CREATED
+                : EmployeeChangedEvent.ChangeType.UPDATED;
+        EmployeeChangedEvent event = EmployeeChangedEvent.newBuilder()
+                .setEmployeeId(employee.getId())
+                .setType(type)
+                .setEmployee(EmployeeProtoMapper.toResponse(employee))
+                .setTimestampMillis(System.currentTimeMillis())
+                .build();
+        outboxRepository.save(new EmployeeOutboxEvent(employee.getId(), type.name(), event.toByteArray()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long id) {
+        EmployeeChangedEvent event = EmployeeChangedEvent.newBuilder()
+                .setEmployeeId(id)
+                .setType(EmployeeChangedEvent.ChangeType.DELETED)
+                .setTimestampMillis(System.currentTimeMillis())
+                .build();
+        outboxRepository.save(new EmployeeOutboxEvent(id, EmployeeChangedEvent.ChangeType.DELETED.name(), event.toByteArray()));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.service;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.example.domainservice.EmployeeChangedEvent;
+import org.example.models.EmployeeOutboxEvent;
+import org.example.repository.EmployeeOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Публикует события из outbox в fanout-обменник. Порция блокируется (FOR UPDATE SKIP LOCKED),
+ * отправляется с ожиданием publisher confirms и удаляется в той же транзакции: если брокер
+ * не подтвердил публикацию, транзакция откатывается и порция уйдёт повторно (at-least-once).
+ */
+@Component
+public class EmployeeOutboxRelay {
+    public static final String CONTENT_TYPE_PROTOBUF = "application/x-protobuf";
+    private static final Logger log = LoggerFactory.getLogger(EmployeeOutboxRelay.class);
+
+    private final EmployeeOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String exchange;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    public EmployeeOutboxRelay(EmployeeOutboxRepository outboxRepository,
+                               RabbitTemplate rabbitTemplate,
+                               TransactionTemplate transactionTemplate,
+                               FanoutExchange employeeEventsExchange,
+                               @Value("${outbox.relay.batch-size:200}") int batchSize,
+                               @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.exchange = employeeEventsExchange.getName();
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось опубликовать события из outbox, повтор при следующем запуске: {}", e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<EmployeeOutboxEvent> events = outboxRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        rabbitTemplate.invoke(operations -> {
+            for (EmployeeOutboxEvent event : events) {
+                operations.send(exchange, "", toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+        outboxRepository.deleteAllInBatch(events);
+        log.debug("Опубликовано {} событий из outbox", events.size());
+        return events.size();
+    }
+
+    private static Message toMessage(EmployeeOutboxEvent outboxEvent) {
+        EmployeeChangedEvent event;
+        try {
+            event = EmployeeChangedEvent.parseFrom(outboxEvent.getPayload())
+                    .toBuilder()
+                    .setVersion(outboxEvent.getId())
+                    .build();
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Повреждённая запись outbox " + outboxEvent.getId(), e);
+        }
+        return MessageBuilder.withBody(event.toByteArray())
+                .setContentType(CONTENT_TYPE_PROTOBUF)
+                .setMessageId(String.valueOf(outboxEvent.getId()))
+                .setTimestamp(Date.from(outboxEvent.getCreatedAt()))
+                .setHeader("x-event-type", outboxEvent.getEventType())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+}
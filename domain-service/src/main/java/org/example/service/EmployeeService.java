@@ -1,7 +1,10 @@
 package org.example.service;
 
 import org.example.models.Employee;
+import org.example.models.EmployeeCommand;
+import org.example.models.EmployeePatch;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,5 +12,9 @@ public interface EmployeeService {
     List<Employee> getAllEmployees();
     Optional<Employee> getEmployeeById(Long id);
     Employee saveEmployee(Employee employee);
-    void deleteEmployee(Long id);
+    Optional<Employee> updateEmployee(Long id, Employee employee);
+    Optional<Employee> patchEmployee(Long id, EmployeePatch patch);
+    boolean deleteEmployee(Long id);
+    void applyCommand(EmployeeCommand command);
+    void applyCommands(List<EmployeeCommand> commands, Collection<String> absorbedCommandIds);
 }
@@ -0,0 +1,155 @@
+package org.example.service;
+
+import org.example.domainservice.EmployeeStatsResponse;
+import org.example.domainservice.MonthlyHires;
+import org.example.domainservice.PositionStats;
+import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Численность и зарплаты по должностям и число приёмов по месяцам, поддерживаемые в памяти.
+ * <p>
+ * При старте (до запуска слушателей очереди и gRPC) агрегаты строятся одним запросом с GROUPING SETS,
+ * дальше каждое зафиксированное изменение сотрудника вычитает прежнее состояние и добавляет новое.
+ * Для точных min/max при удалениях по каждой должности хранится мультимножество зарплат.
+ * <p>
+ * Учитываются только изменения, прошедшие через этот экземпляр domain-service.
+ */
+@Component
+public class EmployeeStatsAggregator implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeStatsAggregator.class);
+
+    private static final String MONTH_EXPRESSION = "to_char(hire_date, 'YYYY-MM')";
+    private static final String REBUILD_SQL =
+            "SELECT GROUPING(" + MONTH_EXPRESSION + ") AS by_position, position, salary, " +
+            MONTH_EXPRESSION + " AS month, count(*) AS cnt " +
+            "FROM employees " +
+            "GROUP BY GROUPING SETS ((position, salary), (" + MONTH_EXPRESSION + "))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private Map<String, PositionAggregate> positions = new HashMap<>();
+    private Map<YearMonth, Long> hiresByMonth = new HashMap<>();
+
+    public EmployeeStatsAggregator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        long started = System.nanoTime();
+        Map<String, PositionAggregate> newPositions = new HashMap<>();
+        Map<YearMonth, Long> newHires = new HashMap<>();
+
+        jdbcTemplate.query(REBUILD_SQL, rs -> {
+            long count = rs.getLong("cnt");
+            if (rs.getInt("by_position") == 1) {
+                double salary = rs.getDouble("salary");
+                Double salaryValue = rs.wasNull() ? null : salary;
+                newPositions.computeIfAbsent(positionKey(rs.getString("position")), key -> new PositionAggregate())
+                        .add(salaryValue, count);
+            } else if (rs.getString("month") != null) {
+                newHires.merge(YearMonth.parse(rs.getString("month")), count, Long::sum);
+            }
+        });
+
+        positions = newPositions;
+        hiresByMonth = newHires;
+        log.info("Статистика сотрудников построена за {} мс: {} должностей, {} месяцев",
+                (System.nanoTime() - started) / 1_000_000, positions.size(), hiresByMonth.size());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onChange(EmployeeChange change) {
+        if (change.getBefore() != null) {
+            apply(change.getBefore(), -1);
+        }
+        if (change.getAfter() != null) {
+            apply(change.getAfter(), 1);
+        }
+    }
+
+    public synchronized EmployeeStatsResponse snapshot() {
+        EmployeeStatsResponse.Builder response = EmployeeStatsResponse.newBuilder();
+        long headcount = 0;
+        for (Map.Entry<String, PositionAggregate> entry : new TreeMap<>(positions).entrySet()) {
+            PositionAggregate aggregate = entry.getValue();
+            headcount += aggregate.headcount;
+            PositionStats.Builder stats = PositionStats.newBuilder()
+                    .setPosition(entry.getKey())
+                    .setHeadcount(aggregate.headcount)
+                    .setSalarySum(aggregate.salarySum.doubleValue());
+            if (!aggregate.salaries.isEmpty()) {
+                stats.setSalaryMin(aggregate.salaries.firstKey())
+                        .setSalaryMax(aggregate.salaries.lastKey())
+                        .setSalaryAvg(aggregate.salarySum
+                                .divide(BigDecimal.valueOf(aggregate.salaryCount), MathContext.DECIMAL64)
+                                .doubleValue());
+            }
+            response.addPositions(stats);
+        }
+        for (Map.Entry<YearMonth, Long> entry : new TreeMap<>(hiresByMonth).entrySet()) {
+            response.addHiresByMonth(MonthlyHires.newBuilder()
+                    .setMonth(entry.getKey().toString())
+                    .setHires(entry.getValue()));
+        }
+        return response.setHeadcount(headcount).build();
+    }
+
+    private void apply(Employee employee, int sign) {
+        String position = positionKey(employee.getPosition());
+        PositionAggregate aggregate = positions.computeIfAbsent(position, key -> new PositionAggregate());
+        aggregate.add(employee.getSalary(), sign);
+        if (aggregate.headcount <= 0) {
+            positions.remove(position);
+        }
+
+        if (employee.getHireDate() != null) {
+            YearMonth month = YearMonth.from(employee.getHireDate());
+            if (hiresByMonth.merge(month, (long) sign, Long::sum) <= 0) {
+                hiresByMonth.remove(month);
+            }
+        }
+    }
+
+    private static String positionKey(String position) {
+        return position == null ? "" : position;
+    }
+
+    private static final class PositionAggregate {
+        private long headcount;
+        private long salaryCount;
+        private BigDecimal salarySum = BigDecimal.ZERO;
+        // зарплата -> число сотрудников с ней
+        private final TreeMap<Double, Long> salaries = new TreeMap<>();
+
+        private void add(Double salary, long count) {
+            headcount += count;
+            if (salary == null) {
+                return;
+            }
+            salaryCount += count;
+            salarySum = salarySum.add(BigDecimal.valueOf(salary).multiply(BigDecimal.valueOf(count)));
+            if (salaries.merge(salary, count, Long::sum) <= 0) {
+                salaries.remove(salary);
+            }
+        }
+    }
+}
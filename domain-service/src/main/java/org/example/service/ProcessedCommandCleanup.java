@@ -0,0 +1,41 @@
+package org.example.service;
+
+import org.example.repository.ProcessedCommandRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Удаляет отметки о применённых командах старше commands.dedup.retention-hours. Повторная доставка
+ * приходит в пределах минут (переподключение потребителя, журнал gateway), так что окна в сутки хватает.
+ */
+@Component
+public class ProcessedCommandCleanup {
+    private static final Logger log = LoggerFactory.getLogger(ProcessedCommandCleanup.class);
+
+    private final ProcessedCommandRepository processedCommands;
+    private final Duration retention;
+
+    public ProcessedCommandCleanup(ProcessedCommandRepository processedCommands,
+                                   @Value("${commands.dedup.retention-hours:24}") long retentionHours) {
+        this.processedCommands = processedCommands;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${commands.dedup.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        try {
+            int deleted = processedCommands.deleteProcessedBefore(Instant.now().minus(retention));
+            if (deleted > 0) {
+                log.debug("Удалено {} отметок о применённых командах", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось удалить старые отметки о применённых командах: {}", e.getMessage());
+        }
+    }
+}
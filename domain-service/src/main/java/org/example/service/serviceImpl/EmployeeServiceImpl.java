@@ -1,20 +1,47 @@
 package org.example.service.serviceImpl;
 
 import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.example.models.EmployeeCommand;
+import org.example.models.EmployeePatch;
 import org.example.repository.EmployeeRepository;
+import org.example.repository.EmployeeStatementWriter;
+import org.example.repository.ProcessedCommandRepository;
+import org.example.service.EmployeeOutbox;
 import org.example.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+
     private final EmployeeRepository employeeRepository;
+    private final EmployeeStatementWriter statementWriter;
+    private final EmployeeOutbox employeeOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProcessedCommandRepository processedCommands;
     @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository,
+                               EmployeeStatementWriter statementWriter,
+                               EmployeeOutbox employeeOutbox,
+                               ApplicationEventPublisher eventPublisher,
+                               ProcessedCommandRepository processedCommands) {
         this.employeeRepository = employeeRepository;
+        this.statementWriter = statementWriter;
+        this.employeeOutbox = employeeOutbox;
+        this.eventPublisher = eventPublisher;
+        this.processedCommands = processedCommands;
     }
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
@@ -22,10 +49,73 @@ public class EmployeeServiceImpl implements EmployeeService {
     public Optional<Employee> getEmployeeById(Long id) {
         return employeeRepository.findById(id);
     }
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        // Всегда создание: существующих сотрудников меняют updateEmployee / patchEmployee
+        employee.setId(null);
+        Employee saved = employeeRepository.save(employee);
+        employeeOutbox.recordSaved(saved, true);
+        eventPublisher.publishEvent(EmployeeChange.created(saved));
+        return saved;
+    }
+    @Transactional
+    public Optional<Employee> updateEmployee(Long id, Employee employee) {
+        return patchEmployee(id, EmployeePatch.of(employee));
+    }
+    @Transactional
+    public Optional<Employee> patchEmployee(Long id, EmployeePatch patch) {
+        Optional<EmployeeChange> change = statementWriter.update(id, patch);
+        change.ifPresent(updated -> {
+            employeeOutbox.recordSaved(updated.getAfter(), false);
+            eventPublisher.publishEvent(updated);
+        });
+        return change.map(EmployeeChange::getAfter);
+    }
+    @Transactional
+    public boolean deleteEmployee(Long id) {
+        Optional<Employee> deleted = statementWriter.delete(id);
+        deleted.ifPresent(employee -> {
+            employeeOutbox.recordDeleted(id);
+            eventPublisher.publishEvent(EmployeeChange.deleted(employee));
+        });
+        return deleted.isPresent();
+    }
+    @Transactional
+    public void applyCommand(EmployeeCommand command) {
+        // Повторная доставка уже применённой команды (at-least-once) пропускается
+        if (command.getCommandId() != null && !processedCommands.markProcessed(command.getCommandId())) {
+            log.debug("Команда {} уже применена, повтор пропущен", command.getCommandId());
+            return;
+        }
+        apply(command);
+    }
+    @Transactional
+    public void applyCommands(List<EmployeeCommand> commands, Collection<String> absorbedCommandIds) {
+        // Все команды пакета применяются в одной транзакции; вставки и обновления
+        // Hibernate отправляет JDBC-пакетами при сбросе контекста в конце транзакции.
+        // Отметки о применении - по одному запросу на пакет, а не на команду.
+        processedCommands.markAllProcessed(absorbedCommandIds);
+        List<String> commandIds = new ArrayList<>(commands.size());
+        for (EmployeeCommand command : commands) {
+            if (command.getCommandId() != null) {
+                commandIds.add(command.getCommandId());
+            }
+        }
+        Set<String> firstDeliveries = processedCommands.markProcessed(commandIds);
+        for (EmployeeCommand command : commands) {
+            // remove - повтор того же сообщения внутри пакета тоже пропускается
+            if (command.getCommandId() != null && !firstDeliveries.remove(command.getCommandId())) {
+                log.debug("Команда {} уже применена, повтор пропущен", command.getCommandId());
+                continue;
+            }
+            apply(command);
+        }
     }
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    private void apply(EmployeeCommand command) {
+        switch (command.getType()) {
+            case CREATE -> saveEmployee(command.toEmployee());
+            case UPDATE -> updateEmployee(command.getId(), command.toEmployee());
+            case DELETE -> deleteEmployee(command.getId());
+        }
     }
 }
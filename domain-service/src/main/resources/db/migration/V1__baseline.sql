@@ -0,0 +1,26 @@
+-- Исходная схема, раньше создававшаяся spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS: на базах, уже созданных Hibernate, миграция ничего не пересоздаёт.
+
+CREATE TABLE IF NOT EXISTS employees (
+    id        bigint       NOT NULL PRIMARY KEY,
+    name      varchar(255),
+    position  varchar(255),
+    salary    double precision,
+    hire_date date
+);
+
+-- Шаг совпадает с allocationSize у Employee: pooled-оптимизатор выдаёт диапазон (nextval - 50, nextval]
+CREATE SEQUENCE IF NOT EXISTS employees_seq START WITH 1 INCREMENT BY 50;
+
+-- Поднимает последовательность выше уже выданных id (таблица могла заполняться через IDENTITY)
+SELECT setval('employees_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM employees) + 50,
+        (SELECT last_value FROM employees_seq)));
+
+CREATE TABLE IF NOT EXISTS employee_outbox (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id bigint                      NOT NULL,
+    event_type  varchar(16)                 NOT NULL,
+    payload     bytea                       NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL
+);
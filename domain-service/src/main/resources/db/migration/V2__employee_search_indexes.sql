@@ -0,0 +1,15 @@
+-- Индексы для SearchEmployees: равенство по должности, диапазоны по зарплате и дате приёма,
+-- сортировка по этим колонкам с id как второй частью ключа для постраничной выборки (keyset).
+-- CONCURRENTLY не блокирует запись в таблицу; Flyway выполняет такую миграцию вне транзакции.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_employees_position_salary_id
+    ON employees (position, salary, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_employees_position_hire_date_id
+    ON employees (position, hire_date, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_employees_salary_id
+    ON employees (salary, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_employees_hire_date_id
+    ON employees (hire_date, id);
@@ -0,0 +1,9 @@
+-- Применённые команды из employeeQueue: повторная доставка того же сообщения (at-least-once
+-- у gateway и брокера) отсеивается по его messageId. Записи старше commands.dedup.retention-hours удаляются.
+
+CREATE TABLE IF NOT EXISTS processed_commands (
+    command_id   varchar(64)                 PRIMARY KEY,
+    processed_at timestamp(6) with time zone NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_processed_commands_processed_at ON processed_commands (processed_at);
@@ -0,0 +1,11 @@
+-- Id записей outbox выдаёт pooled-последовательность, как у employees: с IDENTITY Hibernate
+-- вставляет каждую запись отдельным запросом, и событие не попадает в пакет с изменением сотрудника.
+-- Шаг совпадает с allocationSize у EmployeeOutboxEvent.
+
+CREATE SEQUENCE IF NOT EXISTS employee_outbox_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('employee_outbox_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM employee_outbox) + 50,
+        (SELECT last_value FROM employee_outbox_seq)));
+
+ALTER TABLE employee_outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,91 @@
+package org.example.listener;
+
+import junit.framework.TestCase;
+import org.example.models.EmployeeCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Таблица случаев схлопывания. Команды записаны токенами через пробел:
+ * U1a - обновление сотрудника 1 с именем "a", D1 - удаление сотрудника 1, Cx - создание с именем "x".
+ */
+public class EmployeeCommandCoalescerTest extends TestCase {
+
+    private static final String[][] CASES = {
+            // пакет                          ожидаемый результат
+            {"U1a U1b U1c",                   "U1c"},
+            {"U1a D1",                        "D1"},
+            {"U1a U1b D1",                    "D1"},
+            {"D1 D1",                         "D1"},
+            {"D1 Cx",                         "D1 Cx"},
+            {"Cx D1 Cy",                      "Cx D1 Cy"},
+            {"D1 U1a",                        "D1 U1a"},
+            {"U1a D1 U1b",                    "D1 U1b"},
+            {"U1a U2a U1b D2 U3a",            "U1b D2 U3a"},
+            {"U1a U2a U1b U2b",               "U1b U2b"},
+            {"U2a U1a D2 U2b U1b",            "U1b D2 U2b"},
+            {"U1a Cx U1b",                    "U1b Cx"},
+            {"",                              ""},
+    };
+
+    public void testCoalesce() {
+        for (String[] testCase : CASES) {
+            List<EmployeeCommand> coalesced = EmployeeCommandCoalescer.coalesce(parse(testCase[0]));
+            assertEquals("пакет \"" + testCase[0] + "\"", testCase[1], format(coalesced));
+        }
+    }
+
+    public void testKeepsLastCommandOfEachEmployee() {
+        for (String[] testCase : CASES) {
+            List<EmployeeCommand> batch = parse(testCase[0]);
+            List<EmployeeCommand> coalesced = EmployeeCommandCoalescer.coalesce(batch);
+            // Схлопывание не меняет итог: последняя команда каждого сотрудника та же
+            for (EmployeeCommand command : batch) {
+                if (command.getId() != null) {
+                    assertEquals("пакет \"" + testCase[0] + "\", сотрудник " + command.getId(),
+                            lastOf(batch, command.getId()), lastOf(coalesced, command.getId()));
+                }
+            }
+        }
+    }
+
+    private static String lastOf(List<EmployeeCommand> commands, Long id) {
+        List<EmployeeCommand> last = new ArrayList<>();
+        for (EmployeeCommand command : commands) {
+            if (id.equals(command.getId())) {
+                last = List.of(command);
+            }
+        }
+        return format(last);
+    }
+
+    private static List<EmployeeCommand> parse(String batch) {
+        List<EmployeeCommand> commands = new ArrayList<>();
+        for (String token : batch.trim().split(" +")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            switch (token.charAt(0)) {
+                case 'U' -> commands.add(EmployeeCommand.update((long) (token.charAt(1) - '0'),
+                        token.substring(2), "Разработчик", 100000.0, null));
+                case 'D' -> commands.add(EmployeeCommand.delete((long) (token.charAt(1) - '0')));
+                case 'C' -> commands.add(EmployeeCommand.create(token.substring(1), "Разработчик", 100000.0, null));
+                default -> throw new IllegalArgumentException(token);
+            }
+        }
+        return commands;
+    }
+
+    private static String format(List<EmployeeCommand> commands) {
+        List<String> tokens = new ArrayList<>();
+        for (EmployeeCommand command : commands) {
+            tokens.add(switch (command.getType()) {
+                case UPDATE -> "U" + command.getId() + command.getName();
+                case DELETE -> "D" + command.getId();
+                case CREATE -> "C" + command.getName();
+            });
+        }
+        return String.join(" ", tokens);
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import junit.framework.TestCase;
+import org.example.domainservice.EmployeeSuggestion;
+import org.example.models.Employee;
+import org.example.models.EmployeeChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Сравнение индекса подсказок с перебором: случайные добавления, переименования и удаления
+ * (с уплотнениями индекса по ходу), после каждой порции - одни и те же запросы к индексу
+ * и к простой модели, которая проверяет каждого сотрудника по определению из {@link EmployeeNameIndex#suggest}.
+ */
+public class EmployeeNameIndexTest extends TestCase {
+    // Короткий алфавит слогов: много совпадений, общих триграмм и слов с одинаковым началом
+    private static final String[] SYLLABLES = {"ан", "на", "ив", "ов", "ер", "ре", "ма", "ам", "ё", "е", "ко", "ок"};
+    private static final String[] POSITIONS = {"Разработчик", "Аналитик", "Менеджер проекта", "Дизайнер", null};
+    private static final int LIMIT = 7;
+
+    private EmployeeNameIndex index;
+    // Модель: сотрудники в порядке документов индекса - изменённое имя или должность переносят сотрудника в конец
+    private final Map<Long, Employee> model = new LinkedHashMap<>();
+    private final Random random = new Random(20240611L);
+    private long nextId = 1;
+
+    @Override
+    protected void setUp() {
+        index = new EmployeeNameIndex(new JdbcTemplate(), new SimpleMeterRegistry());
+    }
+
+    public void testMatchesBruteForceAcrossCompactions() {
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 250; i++) {
+                mutate();
+            }
+            for (int q = 0; q < 60; q++) {
+                String query = randomQuery();
+                assertEquals("раунд " + round + ", запрос '" + query + "'", expected(query), actual(query));
+            }
+        }
+    }
+
+    public void testUnchangedNameKeepsPosition() {
+        Employee first = employee(1, "Иван Петров", "Аналитик");
+        Employee second = employee(2, "Иван Сидоров", "Аналитик");
+        index.onChange(EmployeeChange.created(first));
+        index.onChange(EmployeeChange.created(second));
+
+        Employee raised = employee(1, "Иван Петров", "Аналитик");
+        raised.setSalary(200000.0);
+        index.onChange(EmployeeChange.updated(first, raised));
+        assertEquals(List.of(1L, 2L), actual("иван"));
+
+        index.onChange(EmployeeChange.updated(first, employee(1, "Иван Петров", "Дизайнер")));
+        assertEquals(List.of(2L, 1L), actual("иван"));
+    }
+
+    private void mutate() {
+        int action = random.nextInt(10);
+        if (model.isEmpty() || action < 4) {
+            Employee created = employee(nextId++, randomName(), randomPosition());
+            index.onChange(EmployeeChange.created(created));
+            model.put(created.getId(), created);
+            return;
+        }
+
+        Employee before = randomEmployee();
+        if (action < 7) {
+            index.onChange(EmployeeChange.deleted(before));
+            model.remove(before.getId());
+            return;
+        }
+
+        // Переименование, смена должности или изменение, индекс не затрагивающее
+        String name = action == 7 ? randomName() : before.getName();
+        String position = action == 8 ? randomPosition() : before.getPosition();
+        Employee after = employee(before.getId(), name, position);
+        index.onChange(EmployeeChange.updated(before, after));
+        if (!(name.equals(before.getName()) && Objects.equals(position, before.getPosition()))) {
+            model.remove(before.getId());
+        }
+        model.put(after.getId(), after);
+    }
+
+    private List<Long> actual(String query) {
+        List<Long> ids = new ArrayList<>();
+        for (EmployeeSuggestion suggestion : index.suggest(query, LIMIT).getSuggestionsList()) {
+            ids.add(suggestion.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Перебор по определению: каждое слово запроса - начало слова имени или должности (для слов
+     * короче трёх букв) либо подстрока имени или должности; группы по порядку, внутри - по порядку документов.
+     */
+    private List<Long> expected(String query) {
+        String normalized = EmployeeNameIndex.normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String[] tokens = normalized.split(" ");
+        List<List<Long>> tiers = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (Employee employee : model.values()) {
+            String nameKey = EmployeeNameIndex.normalize(employee.getName());
+            String positionKey = EmployeeNameIndex.normalize(employee.getPosition());
+            boolean matches = true;
+            boolean allAtNameWordStart = true;
+            for (String token : tokens) {
+                boolean atNameWordStart = (" " + nameKey).contains(" " + token);
+                boolean atPositionWordStart = (" " + positionKey).contains(" " + token);
+                matches &= token.length() < 3
+                        ? atNameWordStart || atPositionWordStart
+                        : nameKey.contains(token) || positionKey.contains(token);
+                allAtNameWordStart &= atNameWordStart;
+            }
+            if (matches) {
+                int tier = nameKey.startsWith(tokens[0]) ? 0 : allAtNameWordStart ? 1 : 2;
+                tiers.get(tier).add(employee.getId());
+            }
+        }
+        List<Long> ids = new ArrayList<>();
+        tiers.forEach(ids::addAll);
+        return ids.size() > LIMIT ? ids.subList(0, LIMIT) : ids;
+    }
+
+    private Employee randomEmployee() {
+        int skip = random.nextInt(model.size());
+        for (Employee employee : model.values()) {
+            if (skip-- == 0) {
+                return employee;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private String randomName() {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                name.append(random.nextInt(5) == 0 ? "-" : " ");
+            }
+            name.append(randomWord(1 + random.nextInt(3)));
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private String randomQuery() {
+        if (random.nextInt(4) == 0 && !model.isEmpty()) {
+            // Кусок настоящего имени, в том числе из середины слова
+            String name = randomEmployee().getName();
+            int start = random.nextInt(name.length());
+            return name.substring(start, Math.min(name.length(), start + 1 + random.nextInt(5)));
+        }
+        if (random.nextInt(6) == 0) {
+            String position = POSITIONS[random.nextInt(POSITIONS.length - 1)];
+            return position.substring(0, 1 + random.nextInt(position.length()));
+        }
+        String word = randomWord(1 + random.nextInt(2));
+        String query = word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+        return random.nextBoolean() ? query : query + " " + randomWord(1);
+    }
+
+    private String randomWord(int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private String randomPosition() {
+        return POSITIONS[random.nextInt(POSITIONS.length)];
+    }
+
+    private static Employee employee(long id, String name, String position) {
+        Employee employee = new Employee(name, position, 100000.0, null);
+        employee.setId(id);
+        return employee;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.config;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Режим выполнения запросов gateway.
+ * blocking - поток на запрос, как раньше: Redis и блокирующие gRPC-стабы вызываются в потоке Tomcat,
+ * он же дожидается подтверждения команды от RabbitMQ и пишет ответ (BlockingFutureReturnValueHandler);
+ * async - обращения к Redis, gRPC и RabbitMQ уходят с потока Tomcat на отдельный пул
+ * (или на виртуальные потоки, если они доступны и включены).
+ */
+@Configuration
+public class AsyncExecutionConfig implements WebMvcConfigurer {
+    public static final String BLOCKING_MODE = "blocking";
+    private static final Logger log = LoggerFactory.getLogger(AsyncExecutionConfig.class);
+
+    private final ExecutorService gatewayExecutor;
+    private final long asyncRequestTimeoutMs;
+
+    public AsyncExecutionConfig(@Value("${gateway.execution.mode:async}") String mode,
+                                @Value("${gateway.execution.virtual-threads:false}") boolean virtualThreads,
+                                @Value("${gateway.execution.pool-size:64}") int poolSize,
+                                @Value("${gateway.execution.queue-capacity:10000}") int queueCapacity,
+                                @Value("${gateway.execution.request-timeout-ms:30000}") long asyncRequestTimeoutMs) {
+        this.gatewayExecutor = createExecutor(mode, virtualThreads, poolSize, queueCapacity);
+        this.asyncRequestTimeoutMs = asyncRequestTimeoutMs;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @Qualifier("gatewayExecutor")
+    public ExecutorService gatewayExecutor() {
+        return gatewayExecutor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.execution.virtual-threads", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadTomcatCustomizer() {
+        return protocolHandler -> {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+                log.info("Tomcat обрабатывает запросы на виртуальных потоках");
+            }
+        };
+    }
+
+    /**
+     * В режиме blocking обработчик CompletableFuture ставится перед стандартными обработчиками Spring MVC.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.execution.mode", havingValue = BLOCKING_MODE)
+    public SmartInitializingSingleton blockingFutureReturnValues(RequestMappingHandlerAdapter handlerAdapter) {
+        return () -> {
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(handlerAdapter.getReturnValueHandlers());
+            HandlerMethodReturnValueHandlerComposite delegates = new HandlerMethodReturnValueHandlerComposite()
+                    .addHandlers(handlers);
+            handlers.add(0, new BlockingFutureReturnValueHandler(delegates, asyncRequestTimeoutMs));
+            handlerAdapter.setReturnValueHandlers(handlers);
+            log.info("Ответы контроллеров пишутся в потоке Tomcat после завершения CompletableFuture");
+        };
+    }
+
+    public static boolean isBlocking(String mode) {
+        return BLOCKING_MODE.equalsIgnoreCase(mode);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(gatewayExecutor));
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+
+    private static ExecutorService createExecutor(String mode, boolean virtualThreads, int poolSize, int queueCapacity) {
+        if (isBlocking(mode)) {
+            log.info("Режим выполнения gateway: blocking");
+            return MoreExecutors.newDirectExecutorService();
+        }
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                log.info("Режим выполнения gateway: async на виртуальных потоках");
+                return executor;
+            }
+        }
+        log.info("Режим выполнения gateway: async, пул из {} потоков", poolSize);
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("gateway-exec"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Виртуальные потоки доступны начиная с Java 21; на более старых JVM возвращает null.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Виртуальные потоки недоступны в Java {}, используется обычный пул", Runtime.version().feature());
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
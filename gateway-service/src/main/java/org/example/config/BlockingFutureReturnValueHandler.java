@@ -0,0 +1,94 @@
+package org.example.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Режим blocking: CompletableFuture из контроллера дожидается поток Tomcat, и ответ пишется сразу,
+ * без асинхронной обработки запроса - как при потоке на запрос. Будущее, завершившееся ошибкой
+ * или не завершившееся за request-timeout-ms, обрабатывается обычным асинхронным путём Spring MVC,
+ * чтобы ошибки и таймауты давали те же ответы, что и в режиме async.
+ */
+final class BlockingFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+    private final HandlerMethodReturnValueHandlerComposite delegates;
+    private final long timeoutMs;
+
+    BlockingFutureReturnValueHandler(HandlerMethodReturnValueHandlerComposite delegates, long timeoutMs) {
+        this.delegates = delegates;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future != null && await(future)) {
+            Object result = future.join();
+            delegates.handleReturnValue(result, new ResultMethodParameter(returnType, result), mavContainer, webRequest);
+            return;
+        }
+        delegates.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+    }
+
+    private boolean await(CompletableFuture<?> future) {
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Тип результата вместо CompletableFuture - по нему выбирается обработчик (ResponseEntity и т.п.).
+     */
+    private static final class ResultMethodParameter extends MethodParameter {
+        private final Class<?> resultClass;
+        private final ResolvableType resultType;
+
+        private ResultMethodParameter(MethodParameter returnType, Object result) {
+            super(returnType);
+            this.resultType = ResolvableType.forMethodParameter(returnType).getGeneric();
+            this.resultClass = result != null ? result.getClass() : resultType.toClass();
+        }
+
+        private ResultMethodParameter(ResultMethodParameter original) {
+            super(original);
+            this.resultClass = original.resultClass;
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultClass;
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType.getType();
+        }
+
+        @Override
+        public ResultMethodParameter clone() {
+            return new ResultMethodParameter(this);
+        }
+    }
+}
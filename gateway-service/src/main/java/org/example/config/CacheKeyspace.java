@@ -0,0 +1,38 @@
+package org.example.config;
+
+import java.util.List;
+
+/**
+ * Префикс ключей кэша, зависящий от формата хранения. При смене формата новые экземпляры
+ * пишут и читают ключи с другим префиксом.
+ * <p>
+ * Пока экземпляры со старым и новым форматом работают одновременно, изменения сотрудников
+ * должны сбрасывать записи и в чужом пространстве ключей (peerPrefixes), иначе экземпляры
+ * другого формата до истечения TTL отдают устаревшие данные. После завершения выкладки
+ * список очищается (cache.redis.rollout.invalidate-peer-keyspace=false).
+ */
+public class CacheKeyspace {
+    private final String prefix;
+    private final List<String> peerPrefixes;
+
+    public CacheKeyspace(String prefix) {
+        this(prefix, List.of());
+    }
+
+    public CacheKeyspace(String prefix, List<String> peerPrefixes) {
+        this.prefix = prefix;
+        this.peerPrefixes = List.copyOf(peerPrefixes);
+    }
+
+    public String key(String key) {
+        return prefix + key;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public List<CacheKeyspace> peers() {
+        return peerPrefixes.stream().map(CacheKeyspace::new).toList();
+    }
+}
@@ -1,8 +1,10 @@
 package org.example.config;
 
+import io.grpc.ClientInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import org.example.domainservice.EmployeeServiceGrpc;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,10 +19,11 @@ public class GrpcClientConfig {
     private int grpcServerPort;
 
     @Bean
-    public ManagedChannel managedChannel() {
+    public ManagedChannel managedChannel(ObjectProvider<ClientInterceptor> interceptors) {
         return ManagedChannelBuilder
                 .forAddress(grpcServerHost, grpcServerPort)
                 .usePlaintext()
+                .intercept(interceptors.orderedStream().toList())
                 .build();
     }
 
@@ -28,4 +31,14 @@ public class GrpcClientConfig {
     public EmployeeServiceGrpc.EmployeeServiceBlockingStub employeeServiceStub(ManagedChannel channel) {
         return EmployeeServiceGrpc.newBlockingStub(channel);
     }
+
+    @Bean
+    public EmployeeServiceGrpc.EmployeeServiceFutureStub employeeServiceFutureStub(ManagedChannel channel) {
+        return EmployeeServiceGrpc.newFutureStub(channel);
+    }
+
+    @Bean
+    public EmployeeServiceGrpc.EmployeeServiceStub employeeServiceAsyncStub(ManagedChannel channel) {
+        return EmployeeServiceGrpc.newStub(channel);
+    }
 }
@@ -1,9 +1,13 @@
 package org.example.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,7 +25,27 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Binding binding(Queue queue, DirectExchange exchange) {
+    public Binding binding(@Qualifier("queue") Queue queue, DirectExchange exchange) {
         return BindingBuilder.bind(queue).to(exchange).with("employeeRoutingKey");
     }
+
+    @Bean
+    public FanoutExchange employeeEventsExchange(@Value("${rabbitmq.events.exchange:employeeEvents}") String name) {
+        return new FanoutExchange(name, true, false);
+    }
+
+    /**
+     * У каждого экземпляра gateway своя временная очередь событий: fanout доставляет
+     * каждое изменение всем экземплярам, чтобы они обновили свой локальный кэш.
+     */
+    @Bean
+    public Queue employeeEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding employeeEventsBinding(@Qualifier("employeeEventsQueue") Queue employeeEventsQueue,
+                                         FanoutExchange employeeEventsExchange) {
+        return BindingBuilder.bind(employeeEventsQueue).to(employeeEventsExchange);
+    }
 }
@@ -4,17 +4,47 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.serializer.EmployeePageProtobufRedisSerializer;
+import org.example.serializer.EmployeeProtobufRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.util.List;
 
+
 @Configuration
 public class RedisConfig {
+    private static final String PROTOBUF_FORMAT = "protobuf";
+    private static final String PROTOBUF_KEY_PREFIX = "v2:";
+
+    @Value("${cache.redis.format:protobuf}")
+    private String cacheFormat;
+
+    @Value("${cache.redis.rollout.invalidate-peer-keyspace:true}")
+    private boolean invalidatePeerKeyspace;
+
+    @Value("${cache.redis.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${cache.redis.compression.threshold-bytes:1024}")
+    private int compressionThreshold;
+
+    @Bean
+    public CacheKeyspace cacheKeyspace() {
+        String prefix = isProtobufFormat() ? PROTOBUF_KEY_PREFIX : "";
+        if (!invalidatePeerKeyspace) {
+            return new CacheKeyspace(prefix);
+        }
+        // Ключи прежнего формата без префикса, нового - с v2:; каждый экземпляр сбрасывает оба
+        return new CacheKeyspace(prefix, List.of(isProtobufFormat() ? "" : PROTOBUF_KEY_PREFIX));
+    }
 
     @Bean
     public ObjectMapper objectMapper() {
@@ -28,30 +58,36 @@ public class RedisConfig {
         RedisTemplate<String, EmployeeDto> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        RedisSerializer<?> valueSerializer = isProtobufFormat()
+                ? new EmployeeProtobufRedisSerializer()
+                : new GenericJackson2JsonRedisSerializer(objectMapper);
 
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(jsonSerializer);
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(jsonSerializer);
+        template.setHashValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
         return template;
     }
 
     @Bean
-    public RedisTemplate<String, List<EmployeeDto>> employeeListRedisTemplate(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
-        RedisTemplate<String, List<EmployeeDto>> template = new RedisTemplate<>();
+    public RedisTemplate<String, EmployeePageDto> employeePageRedisTemplate(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        RedisTemplate<String, EmployeePageDto> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        RedisSerializer<?> valueSerializer = isProtobufFormat()
+                ? new EmployeePageProtobufRedisSerializer(compressionEnabled, compressionThreshold)
+                : new GenericJackson2JsonRedisSerializer(objectMapper);
 
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(jsonSerializer);
-        template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(jsonSerializer);
+        template.setValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
         return template;
     }
+
+    private boolean isProtobufFormat() {
+        return PROTOBUF_FORMAT.equalsIgnoreCase(cacheFormat);
+    }
 }
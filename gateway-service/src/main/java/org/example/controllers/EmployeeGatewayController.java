@@ -1,107 +1,397 @@
 package org.example.controllers;
 
+import io.grpc.Status;
+import org.example.domainservice.SearchEmployeesRequest;
 import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.dto.EmployeePatchRequest;
+import org.example.dto.EmployeeSearchPageDto;
+import org.example.dto.EmployeeStatsDto;
+import org.example.dto.EmployeeSuggestionDto;
+import org.example.dto.ImportSummaryDto;
 import org.example.dto.NewEmployeeRequest;
 import org.example.grpc.EmployeeGrpcClient;
+import org.example.service.EmployeeCommandEncoder;
+import org.example.service.EmployeeExportService;
+import org.example.service.EmployeeFileFormat;
+import org.example.service.EmployeeImportService;
+import org.example.service.EmployeeSingleFlightLoader;
 import org.example.service.RabbitMQSender;
 import org.example.service.RedisCacheService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeGatewayController {
     private final EmployeeGrpcClient employeeGrpcClient;
     private final RabbitMQSender rabbitMQSender;
+    private final EmployeeCommandEncoder commandEncoder;
     private final RedisCacheService cacheService;
+    private final EmployeeSingleFlightLoader employeeLoader;
+    private final EmployeeImportService importService;
+    private final EmployeeExportService exportService;
+    private final ExecutorService gatewayExecutor;
     private static final Logger log = LoggerFactory.getLogger(EmployeeGatewayController.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_SUGGEST_LIMIT = 50;
 
     public EmployeeGatewayController(EmployeeGrpcClient employeeGrpcClient,
                                      RabbitMQSender rabbitMQSender,
-                                     RedisCacheService cacheService) {
+                                     EmployeeCommandEncoder commandEncoder,
+                                     RedisCacheService cacheService,
+                                     EmployeeSingleFlightLoader employeeLoader,
+                                     EmployeeImportService importService,
+                                     EmployeeExportService exportService,
+                                     @Qualifier("gatewayExecutor") ExecutorService gatewayExecutor) {
         this.employeeGrpcClient = employeeGrpcClient;
         this.rabbitMQSender = rabbitMQSender;
+        this.commandEncoder = commandEncoder;
         this.cacheService = cacheService;
+        this.employeeLoader = employeeLoader;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.gatewayExecutor = gatewayExecutor;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EmployeeDto> getEmployeeById(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<EmployeeDto>> getEmployeeById(@PathVariable Long id) {
         log.info("Получение сотрудника с ID: {}", id);
 
-        EmployeeDto cachedEmployee = cacheService.getCachedEmployee(id);
-        if (cachedEmployee != null) {
-            log.debug("Найдено в кэше для сотрудника с ID:  {}", id);
-            return ResponseEntity.ok(cachedEmployee);
-        }
-
-        return employeeGrpcClient.getEmployeeById(id)
-                .map(employee -> {
-                    cacheService.cacheEmployee(id, employee);
-                    return ResponseEntity.ok(employee);
-                })
-                .orElse(ResponseEntity.notFound().build());
+        return CompletableFuture.supplyAsync(() -> cacheService.getCachedEmployee(id), gatewayExecutor)
+                .thenCompose(cachedEmployee -> {
+                    if (cachedEmployee != null) {
+                        log.debug("Найдено в кэше для сотрудника с ID:  {}", id);
+                        return CompletableFuture.completedFuture(ResponseEntity.ok(cachedEmployee));
+                    }
+                    return employeeLoader.load(id)
+                            .thenApply(employee -> employee
+                                    .map(ResponseEntity::ok)
+                                    .orElse(ResponseEntity.notFound().build()));
+                });
     }
 
+    /**
+     * Весь список собирается в памяти: целиком кэшируется в Redis и отдаётся одним JSON-массивом.
+     * Для больших таблиц - постранично (after/limit) или потоком через /export.
+     */
     @GetMapping
-    public ResponseEntity<List<EmployeeDto>> getAllEmployees() {
+    public CompletableFuture<ResponseEntity<List<EmployeeDto>>> getAllEmployees() {
         log.info("Запрос на получение всех сотрудников");
 
-        List<EmployeeDto> cachedEmployees = cacheService.getCachedAllEmployees();
-        if (!cachedEmployees.isEmpty()) {
-            log.info("Возвращаем {} сотрудников из кэша", cachedEmployees.size());
-            return ResponseEntity.ok(cachedEmployees);
+        return CompletableFuture.supplyAsync(() -> {
+            List<EmployeeDto> cachedEmployees = cacheService.getCachedAllEmployees();
+            if (!cachedEmployees.isEmpty()) {
+                log.info("Возвращаем {} сотрудников из кэша", cachedEmployees.size());
+                return ResponseEntity.ok(cachedEmployees);
+            }
+
+            long epoch = cacheService.allEmployeesEpoch();
+            List<EmployeeDto> employees = employeeGrpcClient.getAllEmployees();
+            if (employees.isEmpty()) {
+                log.warn("Сотрудники не найдены через gRPC");
+                return ResponseEntity.noContent().build();
+            }
+
+            cacheService.cacheAllEmployees(employees, epoch);
+            log.info("Кэширование {} сотрудников, полученных через gRPC", employees.size());
+            return ResponseEntity.ok(employees);
+        }, gatewayExecutor);
+    }
+
+
+    /**
+     * Численность и зарплаты по должностям, приёмы по месяцам. Агрегаты считает domain-service,
+     * ответ кэшируется в Redis до следующего изменения сотрудников.
+     */
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<EmployeeStatsDto>> getEmployeeStats() {
+        log.info("Получение статистики сотрудников");
+
+        return CompletableFuture.supplyAsync(cacheService::getCachedStats, gatewayExecutor)
+                .thenCompose(cachedStats -> {
+                    if (cachedStats != null) {
+                        return CompletableFuture.completedFuture(ResponseEntity.ok(cachedStats));
+                    }
+                    long epoch = cacheService.allEmployeesEpoch();
+                    return employeeGrpcClient.getEmployeeStatsAsync()
+                            .thenApplyAsync(stats -> {
+                                cacheService.cacheStats(stats, epoch);
+                                return ResponseEntity.ok(stats);
+                            }, gatewayExecutor);
+                });
+    }
+
+    /**
+     * Поиск по должности, диапазонам зарплаты и даты приёма с сортировкой id, salary или hireDate.
+     * Следующая страница запрашивается с тем же фильтром и сортировкой и pageToken из ответа.
+     * Результаты не кэшируются: комбинаций фильтров слишком много, чтобы кэш окупался.
+     */
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<EmployeeSearchPageDto>> searchEmployees(@RequestParam(required = false) String position,
+                                                                                    @RequestParam(required = false) Double salaryMin,
+                                                                                    @RequestParam(required = false) Double salaryMax,
+                                                                                    @RequestParam(required = false) String hiredFrom,
+                                                                                    @RequestParam(required = false) String hiredTo,
+                                                                                    @RequestParam(defaultValue = "id") String sort,
+                                                                                    @RequestParam(defaultValue = "asc") String order,
+                                                                                    @RequestParam(defaultValue = "100") int limit,
+                                                                                    @RequestParam(required = false) String pageToken) {
+        log.info("Поиск сотрудников: должность {}, сортировка {} {}, размер {}", position, sort, order, limit);
+        SearchEmployeesRequest.SortField sortBy = switch (sort) {
+            case "id" -> SearchEmployeesRequest.SortField.ID;
+            case "salary" -> SearchEmployeesRequest.SortField.SALARY;
+            case "hireDate" -> SearchEmployeesRequest.SortField.HIRE_DATE;
+            default -> null;
+        };
+        if (sortBy == null || !(order.equals("asc") || order.equals("desc")) || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return employeeGrpcClient.searchEmployeesAsync(position, salaryMin, salaryMax, hiredFrom, hiredTo,
+                        sortBy, order.equals("desc"), limit, pageToken)
+                .handle((page, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(page);
+                    }
+                    Status status = Status.fromThrowable(error);
+                    if (status.getCode() == Status.Code.INVALID_ARGUMENT) {
+                        log.warn("Некорректный запрос поиска сотрудников: {}", status.getDescription());
+                        return ResponseEntity.badRequest().build();
+                    }
+                    log.error("Ошибка поиска сотрудников: {}", status);
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+                });
+    }
+
+    /**
+     * Подсказки для ввода по имени и должности. Индекс в памяти domain-service отвечает быстрее,
+     * чем обращение к Redis, поэтому ответы не кэшируются.
+     */
+    @GetMapping("/suggest")
+    public CompletableFuture<ResponseEntity<List<EmployeeSuggestionDto>>> suggestEmployees(@RequestParam String q,
+                                                                                          @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Подсказки сотрудников по запросу '{}'", q);
+        if (q.isBlank() || limit < 1 || limit > MAX_SUGGEST_LIMIT) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return employeeGrpcClient.suggestEmployeesAsync(q, limit)
+                .handle((suggestions, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(suggestions);
+                    }
+                    Status status = Status.fromThrowable(error);
+                    if (status.getCode() == Status.Code.INVALID_ARGUMENT) {
+                        log.warn("Некорректный запрос подсказок сотрудников: {}", status.getDescription());
+                        return ResponseEntity.badRequest().build();
+                    }
+                    log.error("Ошибка получения подсказок сотрудников: {}", status);
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+                });
+    }
+
+    /**
+     * Выгрузка всех сотрудников с id больше after в NDJSON или CSV. Пишется прямо в выходной поток
+     * из StreamEmployees, без Redis-кэша и без сборки списка; после обрыва можно продолжить
+     * с последнего полученного id.
+     */
+    @GetMapping("/export")
+    public void exportEmployees(@RequestParam(defaultValue = "0") long after,
+                                @RequestParam(defaultValue = "ndjson") String format,
+                                HttpServletResponse response) throws IOException {
+        EmployeeFileFormat fileFormat;
+        try {
+            fileFormat = EmployeeFileFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Неизвестный формат: " + format);
+            return;
         }
+        log.info("Экспорт сотрудников после ID: {}, формат {}", after, fileFormat);
 
-        List<EmployeeDto> employees = employeeGrpcClient.getAllEmployees();
-        if (employees.isEmpty()) {
-            log.warn("Сотрудники не найдены через gRPC");
-            return ResponseEntity.noContent().build();
+        response.setContentType(fileFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"employees." + fileFormat.getExtension() + "\"");
+        exportService.exportEmployees(after, fileFormat, response.getOutputStream());
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<List<EmployeeDto>>> getEmployeesByIds(@RequestParam List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        log.info("Пакетный запрос {} сотрудников", uniqueIds.size());
+        if (uniqueIds.isEmpty() || uniqueIds.size() > MAX_BATCH_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        cacheService.cacheAllEmployees(employees);
-        log.info("Кэширование {} сотрудников, полученных через gRPC", employees.size());
-        return ResponseEntity.ok(employees);
+        return CompletableFuture.supplyAsync(() -> cacheService.getCachedEmployees(uniqueIds), gatewayExecutor)
+                .thenCompose(employees -> {
+                    if (employees.size() == uniqueIds.size()) {
+                        return CompletableFuture.completedFuture(employees);
+                    }
+                    List<Long> missingIds = new ArrayList<>();
+                    for (Long id : uniqueIds) {
+                        if (!employees.containsKey(id)) {
+                            missingIds.add(id);
+                        }
+                    }
+                    return employeeGrpcClient.getEmployeesByIdsAsync(missingIds)
+                            .thenApplyAsync(loaded -> {
+                                cacheService.cacheEmployees(loaded);
+                                employees.putAll(loaded);
+                                log.debug("Из кэша: {}, через gRPC: {}", uniqueIds.size() - missingIds.size(), loaded.size());
+                                return employees;
+                            }, gatewayExecutor);
+                })
+                .thenApply(employees -> {
+                    List<EmployeeDto> result = new ArrayList<>(employees.size());
+                    for (Long id : uniqueIds) {
+                        EmployeeDto employee = employees.get(id);
+                        if (employee != null) {
+                            result.add(employee);
+                        }
+                    }
+                    return ResponseEntity.ok(result);
+                });
+    }
+
+    /**
+     * after без limit - тоже страница, размером DEFAULT_PAGE_SIZE, а не весь список сотрудников.
+     */
+    @GetMapping(params = {"after", "!limit"})
+    public CompletableFuture<ResponseEntity<EmployeePageDto>> getEmployeePageAfter(@RequestParam long after) {
+        return getEmployeePage(after, DEFAULT_PAGE_SIZE);
     }
 
+    @GetMapping(params = "limit")
+    public CompletableFuture<ResponseEntity<EmployeePageDto>> getEmployeePage(@RequestParam(defaultValue = "0") long after,
+                                                                              @RequestParam int limit) {
+        log.info("Запрос страницы сотрудников после ID: {}, размер: {}", after, limit);
+        if (after < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return CompletableFuture.supplyAsync(() -> cacheService.getCachedPage(after, limit), gatewayExecutor)
+                .thenCompose(cachedPage -> {
+                    if (cachedPage != null) {
+                        return CompletableFuture.completedFuture(cachedPage);
+                    }
+                    return employeeGrpcClient.getEmployeePageAsync(after, limit)
+                            .thenApplyAsync(page -> {
+                                cacheService.cachePage(after, limit, page);
+                                return page;
+                            }, gatewayExecutor);
+                })
+                .thenApply(ResponseEntity::ok);
+    }
 
     @PostMapping
-    public ResponseEntity<String> createEmployee(@RequestBody NewEmployeeRequest request) {
+    public CompletableFuture<ResponseEntity<String>> createEmployee(@RequestBody NewEmployeeRequest request) {
         log.info("Создание нового сотрудника: {}", request.getName());
 
-        String message = String.format("CREATE:%s,%s,%f,%s",
-                request.getName(), request.getPosition(),
-                request.getSalary(), request.getHireDate());
-        rabbitMQSender.sendMessage(message);
-        cacheService.evictAllEmployees();
-        log.info("Запрос на создание сотрудника отправлен в RabbitMQ и кэш очищен");
-        return ResponseEntity.accepted().body("Запрос на создание сотрудника принят");
+        return sendCommand(() -> commandEncoder.create(request), "Запрос на создание сотрудника принят");
+    }
+
+    /**
+     * Массовый импорт: NDJSON (application/x-ndjson) или CSV (text/csv).
+     * Обрабатывается в потоке запроса - тело читается по мере поступления и сразу уходит в gRPC-поток.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportSummaryDto> importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream body) throws IOException, InterruptedException {
+        EmployeeFileFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? EmployeeFileFormat.CSV
+                : EmployeeFileFormat.NDJSON;
+        log.info("Массовый импорт сотрудников, формат {}", format);
+
+        try {
+            return ResponseEntity.ok(importService.importEmployees(body, format));
+        } catch (IllegalStateException e) {
+            log.error("Ошибка массового импорта: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<String> updateEmployee(@PathVariable Long id, @RequestBody NewEmployeeRequest request) {
+    public CompletableFuture<ResponseEntity<String>> updateEmployee(@PathVariable Long id, @RequestBody NewEmployeeRequest request) {
         log.info("Обновление сотрудника с ID: {}", id);
 
-        String message = String.format("UPDATE:%d,%s,%s,%f,%s",
-                id, request.getName(), request.getPosition(),
-                request.getSalary(), request.getHireDate());
-        rabbitMQSender.sendMessage(message);
-        cacheService.evictEmployee(id);
-        log.info("Запрос на обновление сотрудника отправлен в RabbitMQ и кэш очищен для ID {}", id);
-        return ResponseEntity.accepted().body("Запрос на обновление сотрудника принят");
+        return sendCommand(() -> commandEncoder.update(id, request), "Запрос на обновление сотрудника принят");
+    }
+
+    /**
+     * Частичное обновление: пишутся только переданные поля, ответ - сотрудник после изменения.
+     * В отличие от PUT выполняется синхронно через gRPC, чтобы вернуть 404 для несуществующего ID.
+     */
+    @PatchMapping("/{id}")
+    public CompletableFuture<ResponseEntity<EmployeeDto>> patchEmployee(@PathVariable Long id,
+                                                                        @RequestBody EmployeePatchRequest patch) {
+        log.info("Частичное обновление сотрудника с ID: {}", id);
+        if (patch.fields().isEmpty()
+                || (patch.fields().contains("name") && patch.getName() == null)
+                || (patch.fields().contains("position") && patch.getPosition() == null)
+                || (patch.fields().contains("salary") && patch.getSalary() == null)
+                || (patch.fields().contains("hireDate") && patch.getHireDate() == null)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return employeeGrpcClient.patchEmployeeAsync(id, patch)
+                .handle((employee, error) -> {
+                    if (error == null) {
+                        return employee.map(ResponseEntity::ok)
+                                .orElseGet(() -> ResponseEntity.notFound().build());
+                    }
+                    Status status = Status.fromThrowable(error);
+                    if (status.getCode() == Status.Code.INVALID_ARGUMENT) {
+                        log.warn("Некорректный запрос на обновление сотрудника {}: {}", id, status.getDescription());
+                        return ResponseEntity.badRequest().build();
+                    }
+                    log.error("Ошибка частичного обновления сотрудника {}: {}", id, status);
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+                });
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<String>> deleteEmployee(@PathVariable Long id) {
         log.info("Удаление сотрудника с ID:  {}", id);
 
-        String message = String.format("DELETE:%d", id);
-        rabbitMQSender.sendMessage(message);
-        cacheService.evictEmployee(id);
-        log.info("Запрос на удаление сотрудника отправлен в RabbitMQ и кэш очищен для ID {}", id);
-        return ResponseEntity.accepted().body("Запрос на удаление сотрудника принят");
+        return sendCommand(() -> commandEncoder.delete(id), "Запрос на удаление сотрудника принят");
+    }
+
+    /**
+     * 202 - команда подтверждена брокером или сохранена в локальный журнал отправителя,
+     * 503 - команду не удалось сохранить нигде.
+     */
+    private CompletableFuture<ResponseEntity<String>> sendCommand(Supplier<Message> command, String acceptedBody) {
+        return CompletableFuture.supplyAsync(command, gatewayExecutor)
+                .thenCompose(rabbitMQSender::sendCommand)
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Команда не принята к отправке: {}", error.getMessage());
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body("Сервис временно не может принять запрос");
+                    }
+                    return ResponseEntity.accepted().body(acceptedBody);
+                });
     }
 }
@@ -0,0 +1,36 @@
+package org.example.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class EmployeePageDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<EmployeeDto> employees;
+    private Long nextAfter;
+    private boolean hasMore;
+
+    public EmployeePageDto() {}
+
+    public EmployeePageDto(List<EmployeeDto> employees, Long nextAfter, boolean hasMore) {
+        this.employees = employees;
+        this.nextAfter = nextAfter;
+        this.hasMore = hasMore;
+    }
+
+    public List<EmployeeDto> getEmployees() { return employees; }
+    public void setEmployees(List<EmployeeDto> employees) { this.employees = employees; }
+    public Long getNextAfter() { return nextAfter; }
+    public void setNextAfter(Long nextAfter) { this.nextAfter = nextAfter; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    @Override
+    public String toString() {
+        return "EmployeePageDto{" +
+                "employees=" + (employees == null ? 0 : employees.size()) +
+                ", nextAfter=" + nextAfter +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Тело PATCH-запроса: меняются только поля, присутствующие в JSON. Jackson вызывает сеттер
+ * лишь для переданных полей, поэтому их имена и становятся маской обновления.
+ */
+public class EmployeePatchRequest {
+    private String name;
+    private String position;
+    private Double salary;
+    private LocalDate hireDate;
+    private final Set<String> fields = new LinkedHashSet<>();
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; fields.add("name"); }
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; fields.add("position"); }
+    public Double getSalary() { return salary; }
+    public void setSalary(Double salary) { this.salary = salary; fields.add("salary"); }
+    public LocalDate getHireDate() { return hireDate; }
+    public void setHireDate(LocalDate hireDate) { this.hireDate = hireDate; fields.add("hireDate"); }
+
+    public Set<String> fields() { return fields; }
+}
@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class EmployeeSearchPageDto {
+    private List<EmployeeDto> employees;
+    private String nextPageToken;
+
+    public EmployeeSearchPageDto() {}
+
+    public EmployeeSearchPageDto(List<EmployeeDto> employees, String nextPageToken) {
+        this.employees = employees;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<EmployeeDto> getEmployees() { return employees; }
+    public void setEmployees(List<EmployeeDto> employees) { this.employees = employees; }
+    public String getNextPageToken() { return nextPageToken; }
+    public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
+}
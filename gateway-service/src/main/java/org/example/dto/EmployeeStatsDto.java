@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmployeeStatsDto {
+    private long headcount;
+    private List<PositionStatsDto> positions = new ArrayList<>();
+    private List<MonthlyHiresDto> hiresByMonth = new ArrayList<>();
+
+    public EmployeeStatsDto() {}
+
+    public EmployeeStatsDto(long headcount, List<PositionStatsDto> positions, List<MonthlyHiresDto> hiresByMonth) {
+        this.headcount = headcount;
+        this.positions = positions;
+        this.hiresByMonth = hiresByMonth;
+    }
+
+    public long getHeadcount() { return headcount; }
+    public void setHeadcount(long headcount) { this.headcount = headcount; }
+    public List<PositionStatsDto> getPositions() { return positions; }
+    public void setPositions(List<PositionStatsDto> positions) { this.positions = positions; }
+    public List<MonthlyHiresDto> getHiresByMonth() { return hiresByMonth; }
+    public void setHiresByMonth(List<MonthlyHiresDto> hiresByMonth) { this.hiresByMonth = hiresByMonth; }
+}
@@ -0,0 +1,22 @@
+package org.example.dto;
+
+public class EmployeeSuggestionDto {
+    private Long id;
+    private String name;
+    private String position;
+
+    public EmployeeSuggestionDto() {}
+
+    public EmployeeSuggestionDto(Long id, String name, String position) {
+        this.id = id;
+        this.name = name;
+        this.position = position;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+}
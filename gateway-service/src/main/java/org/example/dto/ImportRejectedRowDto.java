@@ -0,0 +1,18 @@
+package org.example.dto;
+
+public class ImportRejectedRowDto {
+    private long line;
+    private String reason;
+
+    public ImportRejectedRowDto() {}
+
+    public ImportRejectedRowDto(long line, String reason) {
+        this.line = line;
+        this.reason = reason;
+    }
+
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
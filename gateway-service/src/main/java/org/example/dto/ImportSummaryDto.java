@@ -0,0 +1,37 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class ImportSummaryDto {
+    private long received;
+    private long imported;
+    private long rejected;
+    private List<ImportRejectedRowDto> rejectedRows;
+
+    public ImportSummaryDto() {}
+
+    public ImportSummaryDto(long received, long imported, long rejected, List<ImportRejectedRowDto> rejectedRows) {
+        this.received = received;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+    public List<ImportRejectedRowDto> getRejectedRows() { return rejectedRows; }
+    public void setRejectedRows(List<ImportRejectedRowDto> rejectedRows) { this.rejectedRows = rejectedRows; }
+
+    @Override
+    public String toString() {
+        return "ImportSummaryDto{" +
+                "received=" + received +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.dto;
+
+public class MonthlyHiresDto {
+    private String month;
+    private long hires;
+
+    public MonthlyHiresDto() {}
+
+    public MonthlyHiresDto(String month, long hires) {
+        this.month = month;
+        this.hires = hires;
+    }
+
+    public String getMonth() { return month; }
+    public void setMonth(String month) { this.month = month; }
+    public long getHires() { return hires; }
+    public void setHires(long hires) { this.hires = hires; }
+}
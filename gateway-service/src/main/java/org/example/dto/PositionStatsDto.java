@@ -0,0 +1,35 @@
+package org.example.dto;
+
+public class PositionStatsDto {
+    private String position;
+    private long headcount;
+    private double salarySum;
+    private double salaryMin;
+    private double salaryMax;
+    private double salaryAvg;
+
+    public PositionStatsDto() {}
+
+    public PositionStatsDto(String position, long headcount, double salarySum,
+                            double salaryMin, double salaryMax, double salaryAvg) {
+        this.position = position;
+        this.headcount = headcount;
+        this.salarySum = salarySum;
+        this.salaryMin = salaryMin;
+        this.salaryMax = salaryMax;
+        this.salaryAvg = salaryAvg;
+    }
+
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+    public long getHeadcount() { return headcount; }
+    public void setHeadcount(long headcount) { this.headcount = headcount; }
+    public double getSalarySum() { return salarySum; }
+    public void setSalarySum(double salarySum) { this.salarySum = salarySum; }
+    public double getSalaryMin() { return salaryMin; }
+    public void setSalaryMin(double salaryMin) { this.salaryMin = salaryMin; }
+    public double getSalaryMax() { return salaryMax; }
+    public void setSalaryMax(double salaryMax) { this.salaryMax = salaryMax; }
+    public double getSalaryAvg() { return salaryAvg; }
+    public void setSalaryAvg(double salaryAvg) { this.salaryAvg = salaryAvg; }
+}
@@ -0,0 +1,107 @@
+package org.example.grpc;
+
+import org.example.dto.EmployeeDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Собирает одиночные запросы сотрудников по ID, пришедшие в коротком окне,
+ * и отправляет их одним вызовом GetEmployees (по аналогии с DataLoader).
+ */
+@Service
+public class EmployeeBatchLoader implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeBatchLoader.class);
+
+    private final EmployeeGrpcClient employeeGrpcClient;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+
+    private Map<Long, CompletableFuture<Optional<EmployeeDto>>> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public EmployeeBatchLoader(EmployeeGrpcClient employeeGrpcClient,
+                               @Value("${grpc.batch.window-ms:2}") long windowMs,
+                               @Value("${grpc.batch.max-size:100}") int maxBatchSize) {
+        this.employeeGrpcClient = employeeGrpcClient;
+        this.windowMicros = TimeUnit.MILLISECONDS.toMicros(windowMs);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThread("employee-batch-timer"));
+    }
+
+    public CompletableFuture<Optional<EmployeeDto>> load(Long id) {
+        CompletableFuture<Optional<EmployeeDto>> result;
+        Map<Long, CompletableFuture<Optional<EmployeeDto>>> fullBatch = null;
+        synchronized (lock) {
+            result = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return result;
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Optional<EmployeeDto>>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<EmployeeDto>>> takePending() {
+        Map<Long, CompletableFuture<Optional<EmployeeDto>>> batch = pending;
+        pending = new HashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<EmployeeDto>>> batch) {
+        employeeGrpcClient.getEmployeesByIdsAsync(batch.keySet()).whenComplete((found, error) -> {
+            if (error != null) {
+                log.error("Ошибка пакетного получения {} сотрудников: {}", batch.size(), error.getMessage());
+                batch.values().forEach(future -> future.completeExceptionally(error));
+                return;
+            }
+            log.debug("Пакет из {} запросов сотрудников выполнен одним вызовом", batch.size());
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(found.get(id))));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThread(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
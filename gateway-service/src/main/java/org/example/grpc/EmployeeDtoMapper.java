@@ -0,0 +1,74 @@
+package org.example.grpc;
+
+import org.example.domainservice.EmployeeResponse;
+import org.example.domainservice.EmployeeStatsResponse;
+import org.example.domainservice.EmployeeSuggestion;
+import org.example.domainservice.MonthlyHires;
+import org.example.domainservice.PositionStats;
+import org.example.domainservice.SuggestEmployeesResponse;
+import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeeStatsDto;
+import org.example.dto.EmployeeSuggestionDto;
+import org.example.dto.MonthlyHiresDto;
+import org.example.dto.PositionStatsDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class EmployeeDtoMapper {
+
+    private EmployeeDtoMapper() {
+    }
+
+    public static EmployeeDto toDto(EmployeeResponse response) {
+        return new EmployeeDto(
+                response.getId(),
+                response.getName(),
+                response.getPosition(),
+                response.getSalary(),
+                LocalDate.parse(response.getHireDate())
+        );
+    }
+
+    public static EmployeeResponse toResponse(EmployeeDto employee) {
+        EmployeeResponse.Builder response = EmployeeResponse.newBuilder();
+        if (employee.getId() != null) {
+            response.setId(employee.getId());
+        }
+        if (employee.getName() != null) {
+            response.setName(employee.getName());
+        }
+        if (employee.getPosition() != null) {
+            response.setPosition(employee.getPosition());
+        }
+        if (employee.getSalary() != null) {
+            response.setSalary(employee.getSalary());
+        }
+        if (employee.getHireDate() != null) {
+            response.setHireDate(employee.getHireDate().toString());
+        }
+        return response.build();
+    }
+
+    public static EmployeeStatsDto toDto(EmployeeStatsResponse response) {
+        List<PositionStatsDto> positions = new ArrayList<>(response.getPositionsCount());
+        for (PositionStats stats : response.getPositionsList()) {
+            positions.add(new PositionStatsDto(stats.getPosition(), stats.getHeadcount(), stats.getSalarySum(),
+                    stats.getSalaryMin(), stats.getSalaryMax(), stats.getSalaryAvg()));
+        }
+        List<MonthlyHiresDto> hires = new ArrayList<>(response.getHiresByMonthCount());
+        for (MonthlyHires month : response.getHiresByMonthList()) {
+            hires.add(new MonthlyHiresDto(month.getMonth(), month.getHires()));
+        }
+        return new EmployeeStatsDto(response.getHeadcount(), positions, hires);
+    }
+
+    public static List<EmployeeSuggestionDto> toDto(SuggestEmployeesResponse response) {
+        List<EmployeeSuggestionDto> suggestions = new ArrayList<>(response.getSuggestionsCount());
+        for (EmployeeSuggestion suggestion : response.getSuggestionsList()) {
+            suggestions.add(new EmployeeSuggestionDto(suggestion.getId(), suggestion.getName(), suggestion.getPosition()));
+        }
+        return suggestions;
+    }
+}
@@ -1,24 +1,52 @@
 package org.example.grpc;
 
-
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
+import io.grpc.Context;
+import org.example.config.AsyncExecutionConfig;
 import org.example.domainservice.*;
 import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.dto.EmployeePatchRequest;
+import org.example.dto.EmployeeSearchPageDto;
+import org.example.dto.EmployeeStatsDto;
+import org.example.dto.EmployeeSuggestionDto;
 import org.example.dto.NewEmployeeRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class EmployeeGrpcClient {
     private static final Logger log = LoggerFactory.getLogger(EmployeeGrpcClient.class);
     private final EmployeeServiceGrpc.EmployeeServiceBlockingStub employeeStub;
+    private final EmployeeServiceGrpc.EmployeeServiceFutureStub employeeFutureStub;
+    private final EmployeeServiceGrpc.EmployeeServiceStub employeeAsyncStub;
+    private final boolean blocking;
 
-    public EmployeeGrpcClient(EmployeeServiceGrpc.EmployeeServiceBlockingStub employeeStub) {
+    public EmployeeGrpcClient(EmployeeServiceGrpc.EmployeeServiceBlockingStub employeeStub,
+                              EmployeeServiceGrpc.EmployeeServiceFutureStub employeeFutureStub,
+                              EmployeeServiceGrpc.EmployeeServiceStub employeeAsyncStub,
+                              @Value("${gateway.execution.mode:async}") String executionMode) {
         this.employeeStub = employeeStub;
+        this.employeeFutureStub = employeeFutureStub;
+        this.employeeAsyncStub = employeeAsyncStub;
+        this.blocking = AsyncExecutionConfig.isBlocking(executionMode);
     }
 
     public Optional<EmployeeDto> getEmployeeById(Long id) {
@@ -38,6 +66,50 @@ public class EmployeeGrpcClient {
         return Optional.of(convertToDto(response));
     }
 
+    public CompletableFuture<Optional<EmployeeDto>> getEmployeeByIdAsync(Long id) {
+        log.info("Асинхронное получение сотрудника по ID: {}", id);
+        GetEmployeeRequest request = GetEmployeeRequest.newBuilder()
+                .setId(id)
+                .build();
+
+        return call(() -> employeeStub.getEmployee(request), () -> employeeFutureStub.getEmployee(request))
+                .thenApply(response -> response.equals(EmployeeResponse.getDefaultInstance())
+                        ? Optional.<EmployeeDto>empty()
+                        : Optional.of(convertToDto(response)));
+    }
+
+    public Map<Long, EmployeeDto> getEmployeesByIds(Collection<Long> ids) {
+        log.info("Пакетное получение {} сотрудников по ID", ids.size());
+        GetEmployeesRequest request = GetEmployeesRequest.newBuilder()
+                .addAllIds(ids)
+                .build();
+
+        GetEmployeesResponse response = employeeStub.getEmployees(request);
+        Map<Long, EmployeeDto> employees = new HashMap<>(response.getEmployeesCount() * 2);
+        for (EmployeeResponse employee : response.getEmployeesList()) {
+            employees.put(employee.getId(), convertToDto(employee));
+        }
+
+        log.debug("Найдено {} из {} запрошенных сотрудников", employees.size(), ids.size());
+        return employees;
+    }
+
+    public CompletableFuture<Map<Long, EmployeeDto>> getEmployeesByIdsAsync(Collection<Long> ids) {
+        log.info("Асинхронное пакетное получение {} сотрудников по ID", ids.size());
+        GetEmployeesRequest request = GetEmployeesRequest.newBuilder()
+                .addAllIds(ids)
+                .build();
+
+        return call(() -> employeeStub.getEmployees(request), () -> employeeFutureStub.getEmployees(request))
+                .thenApply(response -> {
+                    Map<Long, EmployeeDto> employees = new HashMap<>(response.getEmployeesCount() * 2);
+                    for (EmployeeResponse employee : response.getEmployeesList()) {
+                        employees.put(employee.getId(), convertToDto(employee));
+                    }
+                    return employees;
+                });
+    }
+
     public EmployeeDto createEmployee(NewEmployeeRequest request) {
         log.info("Создание нового сотрудника: {}", request.getName());
         CreateEmployeeRequest grpcRequest = CreateEmployeeRequest.newBuilder()
@@ -72,6 +144,35 @@ public class EmployeeGrpcClient {
         return Optional.empty();
     }
 
+    /**
+     * Частичное обновление: в updateMask уходят только поля, переданные в запросе.
+     * Пусто - сотрудника нет; недопустимые значения завершаются INVALID_ARGUMENT.
+     */
+    public CompletableFuture<Optional<EmployeeDto>> patchEmployeeAsync(Long id, EmployeePatchRequest patch) {
+        log.info("Частичное обновление сотрудника с ID {}: {}", id, patch.fields());
+        PatchEmployeeRequest.Builder request = PatchEmployeeRequest.newBuilder()
+                .setId(id)
+                .setUpdateMask(FieldMask.newBuilder().addAllPaths(patch.fields()));
+        if (patch.getName() != null) {
+            request.setName(patch.getName());
+        }
+        if (patch.getPosition() != null) {
+            request.setPosition(patch.getPosition());
+        }
+        if (patch.getSalary() != null) {
+            request.setSalary(patch.getSalary());
+        }
+        if (patch.getHireDate() != null) {
+            request.setHireDate(patch.getHireDate().toString());
+        }
+
+        PatchEmployeeRequest patchRequest = request.build();
+        return call(() -> employeeStub.patchEmployee(patchRequest), () -> employeeFutureStub.patchEmployee(patchRequest))
+                .thenApply(response -> response.getFound()
+                        ? Optional.of(convertToDto(response.getEmployee()))
+                        : Optional.<EmployeeDto>empty());
+    }
+
     public boolean deleteEmployee(Long id) {
         log.info("Удаление сотрудника с ID: {}", id);
         DeleteEmployeeRequest request = DeleteEmployeeRequest.newBuilder()
@@ -86,24 +187,185 @@ public class EmployeeGrpcClient {
 
     private EmployeeDto convertToDto(EmployeeResponse response) {
         log.trace("Преобразование ответа сотрудника в DTO для ID: {}", response.getId());
-        return new EmployeeDto(
-                response.getId(),
-                response.getName(),
-                response.getPosition(),
-                response.getSalary(),
-                java.time.LocalDate.parse(response.getHireDate())
-        );
+        return EmployeeDtoMapper.toDto(response);
     }
+    /**
+     * Весь список в памяти: поток StreamEmployees здесь только разбивает передачу на порции, память он
+     * не экономит. Без сборки списка выгружает сотрудников {@link #streamEmployees}.
+     */
     public List<EmployeeDto> getAllEmployees() {
         log.info("Получение всех сотрудников");
-        GetAllEmployeesRequest request = GetAllEmployeesRequest.newBuilder().build();
-        GetAllEmployeesResponse response = employeeStub.getAllEmployees(request);
-
-        List<EmployeeDto> employees = response.getEmployeesList().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<EmployeeDto> employees = new ArrayList<>();
+        streamEmployees(0L, employees::add);
 
         log.debug("Получено {} сотрудников", employees.size());
         return employees;
     }
+
+    public CompletableFuture<EmployeeStatsDto> getEmployeeStatsAsync() {
+        log.info("Получение статистики сотрудников");
+        GetEmployeeStatsRequest request = GetEmployeeStatsRequest.getDefaultInstance();
+        return call(() -> employeeStub.getEmployeeStats(request), () -> employeeFutureStub.getEmployeeStats(request))
+                .thenApply(EmployeeDtoMapper::toDto);
+    }
+
+    /**
+     * Поиск с фильтрами; null-параметры не передаются. pageToken - из предыдущего ответа
+     * с той же сортировкой.
+     */
+    public CompletableFuture<EmployeeSearchPageDto> searchEmployeesAsync(String position, Double salaryMin, Double salaryMax,
+                                                                         String hiredFrom, String hiredTo,
+                                                                         SearchEmployeesRequest.SortField sortBy, boolean descending,
+                                                                         int limit, String pageToken) {
+        log.debug("Поиск сотрудников: должность {}, зарплата {}..{}, приняты {}..{}, сортировка {}",
+                position, salaryMin, salaryMax, hiredFrom, hiredTo, sortBy);
+        SearchEmployeesRequest.Builder request = SearchEmployeesRequest.newBuilder()
+                .setSortBy(sortBy)
+                .setDescending(descending)
+                .setLimit(limit);
+        if (position != null) {
+            request.setPosition(position);
+        }
+        if (salaryMin != null) {
+            request.setSalaryMin(salaryMin);
+        }
+        if (salaryMax != null) {
+            request.setSalaryMax(salaryMax);
+        }
+        if (hiredFrom != null) {
+            request.setHiredFrom(hiredFrom);
+        }
+        if (hiredTo != null) {
+            request.setHiredTo(hiredTo);
+        }
+        if (pageToken != null) {
+            request.setPageToken(pageToken);
+        }
+
+        SearchEmployeesRequest searchRequest = request.build();
+        return call(() -> employeeStub.searchEmployees(searchRequest), () -> employeeFutureStub.searchEmployees(searchRequest))
+                .thenApply(response -> {
+                    List<EmployeeDto> employees = new ArrayList<>(response.getEmployeesCount());
+                    for (EmployeeResponse employee : response.getEmployeesList()) {
+                        employees.add(convertToDto(employee));
+                    }
+                    String nextPageToken = response.getNextPageToken().isEmpty() ? null : response.getNextPageToken();
+                    return new EmployeeSearchPageDto(employees, nextPageToken);
+                });
+    }
+
+    public CompletableFuture<List<EmployeeSuggestionDto>> suggestEmployeesAsync(String query, int limit) {
+        log.debug("Подсказки сотрудников по запросу '{}', не больше {}", query, limit);
+        SuggestEmployeesRequest request = SuggestEmployeesRequest.newBuilder()
+                .setQuery(query)
+                .setLimit(limit)
+                .build();
+
+        return call(() -> employeeStub.suggestEmployees(request), () -> employeeFutureStub.suggestEmployees(request))
+                .thenApply(EmployeeDtoMapper::toDto);
+    }
+
+    public EmployeePageDto getEmployeePage(long afterId, int limit) {
+        log.info("Получение страницы сотрудников после ID: {}, размер: {}", afterId, limit);
+        ListEmployeesRequest request = ListEmployeesRequest.newBuilder()
+                .setAfterId(afterId)
+                .setLimit(limit)
+                .build();
+
+        return toPage(employeeStub.listEmployees(request));
+    }
+
+    public CompletableFuture<EmployeePageDto> getEmployeePageAsync(long afterId, int limit) {
+        log.info("Асинхронное получение страницы сотрудников после ID: {}, размер: {}", afterId, limit);
+        ListEmployeesRequest request = ListEmployeesRequest.newBuilder()
+                .setAfterId(afterId)
+                .setLimit(limit)
+                .build();
+
+        return call(() -> employeeStub.listEmployees(request), () -> employeeFutureStub.listEmployees(request))
+                .thenApply(this::toPage);
+    }
+
+    private EmployeePageDto toPage(ListEmployeesResponse response) {
+        List<EmployeeDto> employees = new ArrayList<>(response.getEmployeesCount());
+        for (EmployeeResponse employee : response.getEmployeesList()) {
+            employees.add(convertToDto(employee));
+        }
+
+        Long nextAfter = employees.isEmpty() ? null : employees.get(employees.size() - 1).getId();
+        log.debug("Получено {} сотрудников на странице, есть продолжение: {}", employees.size(), response.getHasMore());
+        return new EmployeePageDto(employees, nextAfter, response.getHasMore());
+    }
+
+    public long streamEmployees(long afterId, Consumer<EmployeeDto> consumer) {
+        log.info("Потоковое получение сотрудников после ID: {}", afterId);
+        StreamEmployeesRequest request = StreamEmployeesRequest.newBuilder()
+                .setAfterId(afterId)
+                .build();
+
+        // Если consumer бросит исключение (например, клиент HTTP оборвал соединение),
+        // незавершённый серверный поток нужно явно отменить, иначе вызов останется висеть
+        long count = 0;
+        Context.CancellableContext context = Context.current().withCancellation();
+        Context previous = context.attach();
+        try {
+            Iterator<EmployeeChunk> chunks = employeeStub.streamEmployees(request);
+            while (chunks.hasNext()) {
+                for (EmployeeResponse response : chunks.next().getEmployeesList()) {
+                    consumer.accept(convertToDto(response));
+                    count++;
+                }
+            }
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
+        }
+
+        log.debug("Потоком получено {} сотрудников", count);
+        return count;
+    }
+
+    public EmployeeImportStream openImportStream() {
+        log.info("Открытие потока массового импорта сотрудников");
+        EmployeeImportStream stream = new EmployeeImportStream();
+        employeeAsyncStub.importEmployees(stream);
+        return stream;
+    }
+
+    /**
+     * Режим blocking: вызов через блокирующий стаб в потоке вызывающего, будущее возвращается уже
+     * завершённым, и продолжения выполняются в том же потоке. Режим async - через future-стаб.
+     */
+    private <T> CompletableFuture<T> call(Supplier<T> blockingCall, Supplier<ListenableFuture<T>> futureCall) {
+        if (!blocking) {
+            return toCompletableFuture(futureCall.get());
+        }
+        try {
+            return CompletableFuture.completedFuture(blockingCall.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                listenableFuture.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(listenableFuture, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
 }
@@ -0,0 +1,97 @@
+package org.example.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.example.domainservice.ImportEmployeeRecord;
+import org.example.domainservice.ImportEmployeesResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Клиентская сторона ImportEmployees. {@link #send} ждёт, пока транспорт готов принять
+ * следующее сообщение, поэтому отправитель не может уйти вперёд domain-service
+ * и тело запроса не накапливается в памяти gateway.
+ */
+public class EmployeeImportStream implements ClientResponseObserver<ImportEmployeeRecord, ImportEmployeesResponse> {
+
+    private final CompletableFuture<ImportEmployeesResponse> result = new CompletableFuture<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private ClientCallStreamObserver<ImportEmployeeRecord> requestStream;
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ImportEmployeeRecord> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.setOnReadyHandler(this::signal);
+    }
+
+    public void send(ImportEmployeeRecord record) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!requestStream.isReady() && !result.isDone()) {
+                ready.await(100, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (result.isDone()) {
+            // Сервер уже ответил ошибкой, дальше отправлять бессмысленно
+            throw new IllegalStateException("Импорт прерван сервером", failureCause());
+        }
+        requestStream.onNext(record);
+    }
+
+    public ImportEmployeesResponse complete() throws InterruptedException {
+        requestStream.onCompleted();
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Импорт завершился ошибкой: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public void abort(Throwable cause) {
+        requestStream.onError(cause);
+    }
+
+    @Override
+    public void onNext(ImportEmployeesResponse response) {
+        result.complete(response);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        result.completeExceptionally(t);
+        signal();
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!result.isDone()) {
+            result.completeExceptionally(new IllegalStateException("Сервер не вернул итог импорта"));
+        }
+        signal();
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            ready.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Throwable failureCause() {
+        try {
+            result.getNow(null);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+}
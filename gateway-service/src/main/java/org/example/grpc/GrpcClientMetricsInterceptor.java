@@ -0,0 +1,87 @@
+package org.example.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики вызовов domain-service: время каждого RPC от start до onClose (для потоковых -
+ * до конца потока) и число завершений по кодам статуса. Подключается к каналу в GrpcClientConfig.
+ */
+@Component
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        MethodMeters methodMeters = meters.computeIfAbsent(method.getFullMethodName(), name -> new MethodMeters(method));
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                long started = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        methodMeters.record(status.getCode(), System.nanoTime() - started);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private final class MethodMeters {
+        private final String service;
+        private final String method;
+        private final Timer latency;
+        // Счётчики по кодам статуса создаются при первом появлении кода
+        private final Counter[] byStatus = new Counter[Status.Code.values().length];
+
+        private MethodMeters(MethodDescriptor<?, ?> descriptor) {
+            this.service = descriptor.getServiceName();
+            this.method = descriptor.getBareMethodName();
+            this.latency = Timer.builder("grpc.client.call.latency")
+                    .description("Время вызова domain-service от отправки до получения статуса")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("type", descriptor.getType().name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void record(Status.Code code, long nanos) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            Counter counter = byStatus[code.ordinal()];
+            if (counter == null) {
+                counter = Counter.builder("grpc.client.calls")
+                        .description("Завершённые вызовы domain-service по кодам статуса")
+                        .tag("service", service)
+                        .tag("method", method)
+                        .tag("status", code.name())
+                        .register(meterRegistry);
+                byStatus[code.ordinal()] = counter;
+            }
+            counter.increment();
+        }
+    }
+}
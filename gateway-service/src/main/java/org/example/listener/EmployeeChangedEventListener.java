@@ -0,0 +1,38 @@
+package org.example.listener;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.example.domainservice.EmployeeChangedEvent;
+import org.example.service.RedisCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Получает события об изменении сотрудников из domain-service и обновляет кэши gateway.
+ */
+@Component
+public class EmployeeChangedEventListener {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangedEventListener.class);
+
+    private final RedisCacheService cacheService;
+
+    public EmployeeChangedEventListener(RedisCacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @RabbitListener(queues = "#{employeeEventsQueue.name}")
+    public void handleEvent(Message message) {
+        EmployeeChangedEvent event;
+        try {
+            event = EmployeeChangedEvent.parseFrom(message.getBody());
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Пропущено некорректное событие изменения сотрудника: {}", e.getMessage());
+            return;
+        }
+        log.debug("Получено событие {} версии {} для сотрудника с ID: {}",
+                event.getType(), event.getVersion(), event.getEmployeeId());
+        cacheService.applyChange(event);
+    }
+}
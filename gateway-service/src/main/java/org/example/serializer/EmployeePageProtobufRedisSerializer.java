@@ -0,0 +1,57 @@
+package org.example.serializer;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.example.domainservice.EmployeeResponse;
+import org.example.domainservice.ListEmployeesResponse;
+import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.grpc.EmployeeDtoMapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранит страницу сотрудников в виде ListEmployeesResponse, при необходимости сжатого LZ4.
+ */
+public class EmployeePageProtobufRedisSerializer implements RedisSerializer<EmployeePageDto> {
+    private final boolean compress;
+    private final int compressionThreshold;
+
+    public EmployeePageProtobufRedisSerializer(boolean compress, int compressionThreshold) {
+        this.compress = compress;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(EmployeePageDto page) throws SerializationException {
+        if (page == null) {
+            return null;
+        }
+        ListEmployeesResponse.Builder message = ListEmployeesResponse.newBuilder()
+                .setHasMore(page.isHasMore());
+        for (EmployeeDto employee : page.getEmployees()) {
+            message.addEmployees(EmployeeDtoMapper.toResponse(employee));
+        }
+        return Lz4Frames.wrap(message.build().toByteArray(), compress, compressionThreshold);
+    }
+
+    @Override
+    public EmployeePageDto deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            ListEmployeesResponse message = ListEmployeesResponse.parseFrom(Lz4Frames.unwrap(bytes));
+            List<EmployeeDto> employees = new ArrayList<>(message.getEmployeesCount());
+            for (EmployeeResponse employee : message.getEmployeesList()) {
+                employees.add(EmployeeDtoMapper.toDto(employee));
+            }
+            Long nextAfter = employees.isEmpty() ? null : employees.get(employees.size() - 1).getId();
+            return new EmployeePageDto(employees, nextAfter, message.getHasMore());
+        } catch (InvalidProtocolBufferException e) {
+            throw new SerializationException("Не удалось прочитать страницу сотрудников из кэша", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.serializer;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.example.domainservice.EmployeeResponse;
+import org.example.dto.EmployeeDto;
+import org.example.grpc.EmployeeDtoMapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Хранит сотрудника в Redis в виде байтов protobuf-сообщения EmployeeResponse.
+ */
+public class EmployeeProtobufRedisSerializer implements RedisSerializer<EmployeeDto> {
+
+    @Override
+    public byte[] serialize(EmployeeDto employee) throws SerializationException {
+        if (employee == null) {
+            return null;
+        }
+        return EmployeeDtoMapper.toResponse(employee).toByteArray();
+    }
+
+    @Override
+    public EmployeeDto deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return EmployeeDtoMapper.toDto(EmployeeResponse.parseFrom(bytes));
+        } catch (InvalidProtocolBufferException e) {
+            throw new SerializationException("Не удалось прочитать сотрудника из кэша", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Обёртка значения в Redis: 1 байт признака сжатия, затем либо исходные байты,
+ * либо длина несжатых данных (4 байта) и блок LZ4.
+ */
+final class Lz4Frames {
+    private static final byte RAW = 0;
+    private static final byte LZ4 = 1;
+    private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+
+    private Lz4Frames() {
+    }
+
+    static byte[] wrap(byte[] payload, boolean compress, int threshold) {
+        if (!compress || payload.length < threshold) {
+            byte[] frame = new byte[payload.length + 1];
+            frame[0] = RAW;
+            System.arraycopy(payload, 0, frame, 1, payload.length);
+            return frame;
+        }
+        LZ4Compressor compressor = FACTORY.fastCompressor();
+        byte[] frame = new byte[5 + compressor.maxCompressedLength(payload.length)];
+        frame[0] = LZ4;
+        ByteBuffer.wrap(frame, 1, 4).putInt(payload.length);
+        int compressedLength = compressor.compress(payload, 0, payload.length, frame, 5);
+        byte[] result = new byte[5 + compressedLength];
+        System.arraycopy(frame, 0, result, 0, result.length);
+        return result;
+    }
+
+    static ByteBuffer unwrap(byte[] frame) {
+        if (frame.length == 0) {
+            throw new SerializationException("Пустое значение в кэше");
+        }
+        if (frame[0] == RAW) {
+            return ByteBuffer.wrap(frame, 1, frame.length - 1);
+        }
+        if (frame[0] == LZ4) {
+            int length = ByteBuffer.wrap(frame, 1, 4).getInt();
+            LZ4FastDecompressor decompressor = FACTORY.fastDecompressor();
+            byte[] payload = new byte[length];
+            decompressor.decompress(frame, 5, payload, 0, length);
+            return ByteBuffer.wrap(payload);
+        }
+        throw new SerializationException("Неизвестный формат значения в кэше: " + frame[0]);
+    }
+}
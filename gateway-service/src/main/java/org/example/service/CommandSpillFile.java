@@ -0,0 +1,186 @@
+package org.example.service;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Локальный append-only журнал команд, которые не удалось доставить в RabbitMQ.
+ * Запись: [int длина][messageId][contentType][тип команды][timestamp][тело]; после каждой
+ * порции делается fsync, поэтому команда считается принятой только когда она на диске.
+ * Для повторной отправки текущий файл переименовывается в *.replay и читается потоково;
+ * оборванная при сбое последняя запись при чтении отбрасывается.
+ */
+class CommandSpillFile implements Closeable {
+    private static final String SPILL_FILE = "commands.spill";
+    private static final String REPLAY_SUFFIX = ".replay";
+
+    private final Path directory;
+    private final Path spillPath;
+    private FileChannel channel;
+
+    CommandSpillFile(Path directory) throws IOException {
+        this.directory = directory;
+        this.spillPath = directory.resolve(SPILL_FILE);
+        Files.createDirectories(directory);
+    }
+
+    synchronized void append(Collection<Message> messages) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (channel == null) {
+            channel = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(messages.size() * 128);
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (Message message : messages) {
+            byte[] record = encode(message);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    synchronized long size() {
+        try {
+            return Files.exists(spillPath) ? Files.size(spillPath) : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Закрывает текущий журнал и переименовывает его для повторной отправки.
+     * Новые команды после этого пишутся в новый файл.
+     */
+    synchronized Path rotateForReplay() throws IOException {
+        if (size() <= 0) {
+            return null;
+        }
+        closeChannel();
+        Path replayPath = directory.resolve(SPILL_FILE + "." + System.currentTimeMillis() + REPLAY_SUFFIX);
+        Files.move(spillPath, replayPath, StandardCopyOption.ATOMIC_MOVE);
+        return replayPath;
+    }
+
+    /**
+     * Файлы, оставшиеся от прерванной повторной отправки (например, после перезапуска).
+     */
+    List<Path> pendingReplayFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + REPLAY_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    static RecordReader open(Path path) throws IOException {
+        return new RecordReader(new DataInputStream(new BufferedInputStream(Files.newInputStream(path))));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static byte[] encode(Message message) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(message.getBody().length + 96);
+        DataOutputStream out = new DataOutputStream(buffer);
+        MessageProperties properties = message.getMessageProperties();
+        Object commandType = properties.getHeader(EmployeeCommandEncoder.COMMAND_TYPE_HEADER);
+        out.writeUTF(properties.getMessageId() == null ? "" : properties.getMessageId());
+        out.writeUTF(properties.getContentType() == null ? "" : properties.getContentType());
+        out.writeUTF(commandType == null ? "" : commandType.toString());
+        out.writeLong(properties.getTimestamp() == null ? 0 : properties.getTimestamp().getTime());
+        out.writeInt(message.getBody().length);
+        out.write(message.getBody());
+        return buffer.toByteArray();
+    }
+
+    static final class RecordReader implements Closeable {
+        private final DataInputStream in;
+
+        private RecordReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Следующая команда или null в конце файла (включая оборванную последнюю запись).
+         */
+        Message next() throws IOException {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                record = in.readNBytes(length);
+                if (record.length < length) {
+                    return null;
+                }
+            } catch (EOFException e) {
+                return null;
+            }
+            return decode(new DataInputStream(new ByteArrayInputStream(record)));
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private static Message decode(DataInputStream in) throws IOException {
+            String messageId = in.readUTF();
+            String contentType = in.readUTF();
+            String commandType = in.readUTF();
+            long timestamp = in.readLong();
+            byte[] body = in.readNBytes(in.readInt());
+
+            MessageProperties properties = new MessageProperties();
+            properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+            if (!messageId.isEmpty()) {
+                properties.setMessageId(messageId);
+            }
+            if (!contentType.isEmpty()) {
+                properties.setContentType(contentType);
+            }
+            if (!commandType.isEmpty()) {
+                properties.setHeader(EmployeeCommandEncoder.COMMAND_TYPE_HEADER, commandType);
+            }
+            if (timestamp > 0) {
+                properties.setTimestamp(new Date(timestamp));
+            }
+            return new Message(body, properties);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.service;
+
+import org.example.domainservice.CreateEmployeeCommand;
+import org.example.domainservice.DeleteEmployeeCommand;
+import org.example.domainservice.EmployeeCommandMessage;
+import org.example.domainservice.UpdateEmployeeCommand;
+import org.example.dto.NewEmployeeRequest;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Собирает AMQP-сообщения с командами для domain-service.
+ * По умолчанию команды кодируются в protobuf (EmployeeCommandMessage);
+ * rabbitmq.command.format=text возвращает старый формат "CREATE:a,b,c,d"
+ * на время выкатки, пока не все экземпляры domain-service понимают protobuf.
+ */
+@Component
+public class EmployeeCommandEncoder {
+    public static final String CONTENT_TYPE_PROTOBUF = "application/x-protobuf";
+    public static final String COMMAND_TYPE_HEADER = "x-command-type";
+
+    private final boolean protobuf;
+
+    public EmployeeCommandEncoder(@Value("${rabbitmq.command.format:protobuf}") String format) {
+        this.protobuf = !"text".equalsIgnoreCase(format);
+    }
+
+    public Message create(NewEmployeeRequest request) {
+        if (!protobuf) {
+            return text(String.format("CREATE:%s,%s,%f,%s",
+                    request.getName(), request.getPosition(),
+                    request.getSalary(), request.getHireDate()));
+        }
+        CreateEmployeeCommand.Builder create = CreateEmployeeCommand.newBuilder()
+                .setName(nullToEmpty(request.getName()))
+                .setPosition(nullToEmpty(request.getPosition()));
+        if (request.getSalary() != null) {
+            create.setSalary(request.getSalary());
+        }
+        if (request.getHireDate() != null) {
+            create.setHireDateEpochDay(request.getHireDate().toEpochDay());
+        }
+        return binary(envelope().setCreate(create).build(), "CREATE");
+    }
+
+    public Message update(Long id, NewEmployeeRequest request) {
+        if (!protobuf) {
+            return text(String.format("UPDATE:%d,%s,%s,%f,%s",
+                    id, request.getName(), request.getPosition(),
+                    request.getSalary(), request.getHireDate()));
+        }
+        UpdateEmployeeCommand.Builder update = UpdateEmployeeCommand.newBuilder()
+                .setId(id)
+                .setName(nullToEmpty(request.getName()))
+                .setPosition(nullToEmpty(request.getPosition()));
+        if (request.getSalary() != null) {
+            update.setSalary(request.getSalary());
+        }
+        if (request.getHireDate() != null) {
+            update.setHireDateEpochDay(request.getHireDate().toEpochDay());
+        }
+        return binary(envelope().setUpdate(update).build(), "UPDATE");
+    }
+
+    public Message delete(Long id) {
+        if (!protobuf) {
+            return text(String.format("DELETE:%d", id));
+        }
+        return binary(envelope().setDelete(DeleteEmployeeCommand.newBuilder().setId(id)).build(), "DELETE");
+    }
+
+    private static EmployeeCommandMessage.Builder envelope() {
+        return EmployeeCommandMessage.newBuilder()
+                .setCommandId(UUID.randomUUID().toString())
+                .setTimestampMillis(System.currentTimeMillis());
+    }
+
+    private static Message binary(EmployeeCommandMessage command, String type) {
+        return MessageBuilder.withBody(command.toByteArray())
+                .setContentType(CONTENT_TYPE_PROTOBUF)
+                .setMessageId(command.getCommandId())
+                .setTimestamp(new Date(command.getTimestampMillis()))
+                .setHeader(COMMAND_TYPE_HEADER, type)
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+
+    private static Message text(String body) {
+        return MessageBuilder.withBody(body.getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(UUID.randomUUID().toString())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.EmployeeDto;
+import org.example.grpc.EmployeeGrpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Потоковый экспорт сотрудников в NDJSON или CSV. Данные читаются из StreamEmployees
+ * и сразу пишутся в выходной поток, минуя Redis-кэш списка, поэтому память gateway
+ * не зависит от размера таблицы. Медленный клиент через блокирующую запись и
+ * flow control gRPC притормаживает чтение из domain-service.
+ */
+@Service
+public class EmployeeExportService {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeExportService.class);
+
+    private static final String CSV_HEADER = "id,name,position,salary,hireDate\n";
+
+    private final EmployeeGrpcClient employeeGrpcClient;
+    private final ObjectMapper objectMapper;
+
+    public EmployeeExportService(EmployeeGrpcClient employeeGrpcClient, ObjectMapper objectMapper) {
+        this.employeeGrpcClient = employeeGrpcClient;
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportEmployees(long afterId, EmployeeFileFormat format, OutputStream out) throws IOException {
+        long count;
+        try {
+            count = format == EmployeeFileFormat.CSV ? exportCsv(afterId, out) : exportNdjson(afterId, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Экспорт сотрудников завершён: {} записей после ID {}, формат {}", count, afterId, format);
+        return count;
+    }
+
+    private long exportNdjson(long afterId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long count = employeeGrpcClient.streamEmployees(afterId, employee -> {
+            try {
+                generator.writeObject(employee);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+        return count;
+    }
+
+    private long exportCsv(long afterId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        writer.write(CSV_HEADER);
+        long count = employeeGrpcClient.streamEmployees(afterId, employee -> {
+            try {
+                writeCsvRow(writer, employee);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, EmployeeDto employee) throws IOException {
+        writer.write(String.valueOf(employee.getId()));
+        writer.write(',');
+        writeCsvField(writer, employee.getName());
+        writer.write(',');
+        writeCsvField(writer, employee.getPosition());
+        writer.write(',');
+        writer.write(employee.getSalary() == null ? "" : employee.getSalary().toString());
+        writer.write(',');
+        writer.write(employee.getHireDate() == null ? "" : employee.getHireDate().toString());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
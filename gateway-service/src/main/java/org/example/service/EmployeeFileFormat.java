@@ -0,0 +1,20 @@
+package org.example.service;
+
+/**
+ * Форматы файлов массового импорта и экспорта сотрудников.
+ */
+public enum EmployeeFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    EmployeeFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() { return mediaType; }
+    public String getExtension() { return extension; }
+}
@@ -0,0 +1,212 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Status;
+import org.example.domainservice.ImportEmployeeRecord;
+import org.example.domainservice.ImportEmployeesResponse;
+import org.example.domainservice.ImportRejectedRow;
+import org.example.dto.ImportRejectedRowDto;
+import org.example.dto.ImportSummaryDto;
+import org.example.dto.NewEmployeeRequest;
+import org.example.grpc.EmployeeGrpcClient;
+import org.example.grpc.EmployeeImportStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Потоковый импорт сотрудников из NDJSON или CSV. Тело запроса читается построчно,
+ * каждая строка сразу уходит в ImportEmployees, так что в памяти держится только текущая строка.
+ * Кэш сбрасывается один раз по окончании импорта.
+ */
+@Service
+public class EmployeeImportService {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    private static final String[] DEFAULT_CSV_COLUMNS = {"name", "position", "salary", "hiredate"};
+
+    private final EmployeeGrpcClient employeeGrpcClient;
+    private final RedisCacheService cacheService;
+    private final ObjectMapper objectMapper;
+    private final int maxReportedRejections;
+
+    public EmployeeImportService(EmployeeGrpcClient employeeGrpcClient,
+                                 RedisCacheService cacheService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${import.max-reported-rejections:100}") int maxReportedRejections) {
+        this.employeeGrpcClient = employeeGrpcClient;
+        this.cacheService = cacheService;
+        this.objectMapper = objectMapper;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public ImportSummaryDto importEmployees(InputStream body, EmployeeFileFormat format) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        EmployeeImportStream stream = employeeGrpcClient.openImportStream();
+
+        long received = 0;
+        List<ImportRejectedRowDto> rejectedRows = new ArrayList<>();
+        long rejected = 0;
+        String[] csvColumns = DEFAULT_CSV_COLUMNS;
+        long lineNumber = 0;
+        String line;
+        ImportEmployeesResponse response;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == EmployeeFileFormat.CSV && lineNumber == 1 && isCsvHeader(line)) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+
+                received++;
+                ImportEmployeeRecord record;
+                try {
+                    NewEmployeeRequest request = format == EmployeeFileFormat.CSV ? parseCsv(line, csvColumns) : parseJson(line);
+                    record = toRecord(lineNumber, request);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (rejectedRows.size() < maxReportedRejections) {
+                        rejectedRows.add(new ImportRejectedRowDto(lineNumber, e.getMessage()));
+                    }
+                    continue;
+                }
+                stream.send(record);
+            }
+            response = stream.complete();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            stream.abort(Status.CANCELLED.withDescription("Чтение тела запроса прервано").withCause(e).asRuntimeException());
+            throw e;
+        } finally {
+            if (received > 0) {
+                // Новые сотрудники получают id в конце таблицы, поэтому достаточно общего списка и хвостовых страниц
+                cacheService.evictAllEmployees();
+                cacheService.evictTailPages();
+            }
+        }
+
+        for (ImportRejectedRow row : response.getRejectedRowsList()) {
+            if (rejectedRows.size() >= maxReportedRejections) {
+                break;
+            }
+            rejectedRows.add(new ImportRejectedRowDto(row.getLine(), row.getReason()));
+        }
+        rejectedRows.sort(Comparator.comparingLong(ImportRejectedRowDto::getLine));
+
+        ImportSummaryDto summary = new ImportSummaryDto(received, response.getImported(),
+                rejected + response.getRejected(), rejectedRows);
+        log.info("Импорт сотрудников завершён: {}", summary);
+        return summary;
+    }
+
+    private NewEmployeeRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, NewEmployeeRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private NewEmployeeRequest parseCsv(String line, String[] columns) {
+        List<String> values = splitCsv(line);
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException("ожидалось " + columns.length + " колонок, получено " + values.size());
+        }
+        NewEmployeeRequest request = new NewEmployeeRequest();
+        for (int i = 0; i < columns.length; i++) {
+            String value = values.get(i).trim();
+            try {
+                switch (columns[i]) {
+                    case "name" -> request.setName(value);
+                    case "position" -> request.setPosition(value);
+                    case "salary" -> request.setSalary(value.isEmpty() ? null : Double.valueOf(value));
+                    case "hiredate" -> request.setHireDate(value.isEmpty() ? null : LocalDate.parse(value));
+                    default -> { }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("некорректное значение колонки " + columns[i] + ": " + value);
+            }
+        }
+        return request;
+    }
+
+    private static ImportEmployeeRecord toRecord(long line, NewEmployeeRequest request) {
+        if (request.getSalary() == null) {
+            throw new IllegalArgumentException("не указана зарплата");
+        }
+        return ImportEmployeeRecord.newBuilder()
+                .setLine(line)
+                .setName(request.getName() == null ? "" : request.getName())
+                .setPosition(request.getPosition() == null ? "" : request.getPosition())
+                .setSalary(request.getSalary())
+                .setHireDate(request.getHireDate() == null ? "" : request.getHireDate().toString())
+                .build();
+    }
+
+    private static boolean isCsvHeader(String line) {
+        String lower = line.toLowerCase(Locale.ROOT);
+        return lower.contains("name") && lower.contains("position");
+    }
+
+    private static String[] parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        String[] columns = new String[names.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+        }
+        return columns;
+    }
+
+    /**
+     * Разбор одной CSV-строки по RFC 4180: поля в кавычках могут содержать запятые и "".
+     * Переводы строк внутри кавычек не поддерживаются - одна запись всегда занимает одну строку.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
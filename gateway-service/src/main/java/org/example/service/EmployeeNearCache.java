@@ -0,0 +1,47 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.dto.EmployeeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Локальный (L1) кэш сотрудников перед Redis. Каждый экземпляр gateway получает события об изменениях
+ * из domain-service через свою очередь fanout и обновляет или сбрасывает свою копию сам
+ * (RedisCacheService.applyChange).
+ */
+@Service
+public class EmployeeNearCache {
+    private final Cache<Long, EmployeeDto> cache;
+
+    public EmployeeNearCache(MeterRegistry meterRegistry,
+                             @Value("${cache.near.max-size:10000}") long maxSize,
+                             @Value("${cache.near.ttl-seconds:30}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "employee.near");
+    }
+
+    public EmployeeDto get(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(Long id, EmployeeDto employee) {
+        cache.put(id, employee);
+    }
+
+    /**
+     * Сброс только в этом экземпляре: об изменении каждый экземпляр узнаёт сам из события.
+     */
+    public void invalidateLocal(Long id) {
+        cache.invalidate(id);
+    }
+}
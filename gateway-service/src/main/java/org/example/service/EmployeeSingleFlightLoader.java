@@ -0,0 +1,206 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.config.AsyncExecutionConfig;
+import org.example.dto.EmployeeDto;
+import org.example.grpc.EmployeeBatchLoader;
+import org.example.grpc.EmployeeGrpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Объединяет одновременные промахи кэша по одному и тому же ID в один gRPC-запрос.
+ * При включённой блокировке в Redis объединение работает и между экземплярами gateway.
+ */
+@Service
+public class EmployeeSingleFlightLoader {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSingleFlightLoader.class);
+    private static final String LOCK_KEY_PREFIX = "lock:employee:";
+    private static final long LOCK_POLL_INTERVAL_MS = 10L;
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<EmployeeDto>>> inFlight = new ConcurrentHashMap<>();
+    private final EmployeeGrpcClient employeeGrpcClient;
+    private final EmployeeBatchLoader employeeBatchLoader;
+    private final RedisCacheService cacheService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Counter localWaiters;
+    private final Counter remoteWaiters;
+    private final ExecutorService gatewayExecutor;
+    private final boolean blocking;
+
+    @Value("${grpc.batch.enabled:true}")
+    private boolean batchingEnabled;
+
+    @Value("${cache.single-flight.redis-lock.enabled:false}")
+    private boolean redisLockEnabled;
+
+    @Value("${cache.single-flight.redis-lock.ttl-ms:2000}")
+    private long lockTtlMs;
+
+    @Value("${cache.single-flight.redis-lock.wait-ms:200}")
+    private long lockWaitMs;
+
+    public EmployeeSingleFlightLoader(EmployeeGrpcClient employeeGrpcClient,
+                                      EmployeeBatchLoader employeeBatchLoader,
+                                      RedisCacheService cacheService,
+                                      StringRedisTemplate stringRedisTemplate,
+                                      MeterRegistry meterRegistry,
+                                      @Qualifier("gatewayExecutor") ExecutorService gatewayExecutor,
+                                      @Value("${gateway.execution.mode:async}") String executionMode) {
+        this.employeeGrpcClient = employeeGrpcClient;
+        this.employeeBatchLoader = employeeBatchLoader;
+        this.cacheService = cacheService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.gatewayExecutor = gatewayExecutor;
+        this.blocking = AsyncExecutionConfig.isBlocking(executionMode);
+        this.localWaiters = Counter.builder("employee.lookup.coalesced")
+                .description("Запросы, дождавшиеся чужой загрузки сотрудника вместо собственного gRPC-вызова")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.remoteWaiters = Counter.builder("employee.lookup.coalesced")
+                .description("Запросы, дождавшиеся чужой загрузки сотрудника вместо собственного gRPC-вызова")
+                .tag("scope", "remote")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Optional<EmployeeDto>> load(Long id) {
+        CompletableFuture<Optional<EmployeeDto>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<EmployeeDto>> existing = inFlight.putIfAbsent(id, call);
+        if (existing != null) {
+            localWaiters.increment();
+            log.debug("Ожидание уже выполняющейся загрузки сотрудника с ID: {}", id);
+            return existing;
+        }
+
+        CompletableFuture<Optional<EmployeeDto>> source;
+        try {
+            source = redisLockEnabled
+                    ? CompletableFuture.supplyAsync(() -> loadWithRedisLock(id), gatewayExecutor)
+                    : loadAndCacheAsync(id);
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((employee, error) -> {
+            inFlight.remove(id, call);
+            if (error != null) {
+                call.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                call.complete(employee);
+            }
+        });
+        return call;
+    }
+
+    private Optional<EmployeeDto> loadWithRedisLock(Long id) {
+        String lockKey = LOCK_KEY_PREFIX + id;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = tryLock(lockKey, token);
+        if (Boolean.FALSE.equals(acquired)) {
+            remoteWaiters.increment();
+            EmployeeDto loadedElsewhere = waitForRemoteLoad(id);
+            if (loadedElsewhere != null) {
+                return Optional.of(loadedElsewhere);
+            }
+            log.debug("Не дождались загрузки сотрудника с ID: {} другим экземпляром, загружаем сами", id);
+            return loadAndCache(id);
+        }
+
+        try {
+            return loadAndCache(id);
+        } finally {
+            if (Boolean.TRUE.equals(acquired)) {
+                releaseLock(lockKey, token);
+            }
+        }
+    }
+
+    private Optional<EmployeeDto> loadAndCache(Long id) {
+        Optional<EmployeeDto> employee = await(fetch(id));
+        employee.ifPresent(dto -> cacheService.cacheEmployee(id, dto));
+        return employee;
+    }
+
+    private CompletableFuture<Optional<EmployeeDto>> loadAndCacheAsync(Long id) {
+        return fetch(id).thenApplyAsync(employee -> {
+            employee.ifPresent(dto -> cacheService.cacheEmployee(id, dto));
+            return employee;
+        }, gatewayExecutor);
+    }
+
+    /**
+     * В режиме blocking пакетирование не используется: поток запроса сам вызывает GetEmployee,
+     * как при потоке на запрос, и кэширует результат.
+     */
+    private CompletableFuture<Optional<EmployeeDto>> fetch(Long id) {
+        return batchingEnabled && !blocking
+                ? employeeBatchLoader.load(id)
+                : employeeGrpcClient.getEmployeeByIdAsync(id);
+    }
+
+    private Boolean tryLock(String lockKey, String token) {
+        try {
+            return stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs));
+        } catch (Exception e) {
+            log.warn("Не удалось получить блокировку {} в Redis: {}", lockKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void releaseLock(String lockKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Не удалось снять блокировку {} в Redis: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private EmployeeDto waitForRemoteLoad(Long id) {
+        long deadline = System.nanoTime() + Duration.ofMillis(lockWaitMs).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            EmployeeDto cached = cacheService.getCachedEmployee(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private static Optional<EmployeeDto> await(CompletableFuture<Optional<EmployeeDto>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,14 +1,62 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Публикация команд в RabbitMQ с подтверждениями (publisher confirms).
+ * <p>
+ * Запрос только кладёт команду в ограниченный кольцевой буфер; отдельный поток публикует её
+ * порциями, а подтверждения приходят асинхронно и сопоставляются по CorrelationData.
+ * Будущее из {@link #sendCommand} завершается, когда брокер подтвердил команду или когда она
+ * записана в локальный журнал на диске. Туда же уходят команды, если брокер недоступен, ответил nack,
+ * не подтвердил за confirm-timeout или буфер переполнен; после восстановления брокера журнал
+ * отправляется повторно. Доставка - at-least-once: повторы отсеивает domain-service по messageId.
+ * <p>
+ * Пока журнал не отправлен целиком, новые команды тоже пишутся в него, а не в буфер, - иначе они
+ * обогнали бы более ранние команды того же сотрудника. Журналы отправляются по одному, следующий -
+ * после подтверждения всех команд предыдущего. Команда из журнала, которая снова не дошла до брокера,
+ * не дописывается в текущий журнал за более новыми командами: журнал, из которого она прочитана,
+ * остаётся на диске и целиком отправляется повторно раньше всех остальных (уже доставленные из него
+ * команды domain-service отсеет по messageId). Команды, возвращённые брокером как немаршрутизируемые,
+ * повторять бесполезно: они записываются в отдельный журнал dead-letter для разбора вручную.
+ */
 @Service
-public class RabbitMQSender {
+public class RabbitMQSender implements SmartLifecycle {
     private static final Logger log = LoggerFactory.getLogger(RabbitMQSender.class);
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long EXPIRE_CHECK_INTERVAL_MS = 1000;
 
     private final RabbitTemplate rabbitTemplate;
 
@@ -18,17 +66,456 @@ public class RabbitMQSender {
     @Value("${rabbitmq.routing.key}")
     private String routingKey;
 
-    public RabbitMQSender(RabbitTemplate rabbitTemplate) {
+    private final BlockingQueue<PendingCommand> buffer;
+    private final Map<String, PendingCommand> inFlight = new ConcurrentHashMap<>();
+    private final Set<Path> activeReplays = ConcurrentHashMap.newKeySet();
+    private final CommandSpillFile spillFile;
+    private final CommandSpillFile deadLetterFile;
+    // Журнал не пуст или отправляется: новые команды встают за ним. Сбрасывается под spillLock
+    private final Object spillLock = new Object();
+    private volatile boolean spillBacklog;
+    private final int batchSize;
+    private final long confirmTimeoutNanos;
+    private final long replayIntervalMs;
+
+    private final Timer confirmLatency;
+    private final Timer sendLatency;
+    private final Timer acceptLatency;
+    private final Counter spilled;
+    private final Counter nacked;
+    private final Counter sendFailures;
+    private final Counter confirmTimeouts;
+    private final Counter nackFailures;
+    private final Counter returnFailures;
+    private final Counter spillFailures;
+    private final Counter deadLettered;
+
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile boolean running;
+    private volatile boolean brokerAvailable = true;
+    private Thread publisherThread;
+    private Thread replayThread;
+    private long lastExpireCheck;
+    private long lastReplayCheck;
+
+    public RabbitMQSender(RabbitTemplate rabbitTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${rabbitmq.publisher.buffer-capacity:10000}") int bufferCapacity,
+                          @Value("${rabbitmq.publisher.batch-size:100}") int batchSize,
+                          @Value("${rabbitmq.publisher.confirm-timeout-ms:10000}") long confirmTimeoutMs,
+                          @Value("${rabbitmq.publisher.replay-interval-ms:5000}") long replayIntervalMs,
+                          @Value("${rabbitmq.publisher.spill-dir:spill}") String spillDir) throws IOException {
         this.rabbitTemplate = rabbitTemplate;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.confirmTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        this.replayIntervalMs = replayIntervalMs;
+        this.spillFile = new CommandSpillFile(Paths.get(spillDir));
+        this.deadLetterFile = new CommandSpillFile(Paths.get(spillDir, "dead-letter"));
+        this.spillBacklog = spillFile.size() > 0 || !spillFile.pendingReplayFiles().isEmpty();
+
+        this.confirmLatency = Timer.builder("rabbitmq.publisher.confirm.latency")
+                .description("Время от публикации команды до подтверждения брокером")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("rabbitmq.publisher.send.latency")
+                .description("Время передачи команды в канал RabbitMQ потоком отправки")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.acceptLatency = Timer.builder("rabbitmq.publisher.accept.latency")
+                .description("Время от постановки команды в буфер до подтверждения брокером или записи в журнал")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.spilled = Counter.builder("rabbitmq.publisher.spilled")
+                .description("Команды, записанные в локальный журнал")
+                .register(meterRegistry);
+        this.nacked = Counter.builder("rabbitmq.publisher.nacked")
+                .description("Команды, отклонённые или возвращённые брокером")
+                .register(meterRegistry);
+        this.sendFailures = failureCounter(meterRegistry, "send_error");
+        this.confirmTimeouts = failureCounter(meterRegistry, "confirm_timeout");
+        this.nackFailures = failureCounter(meterRegistry, "nack");
+        this.returnFailures = failureCounter(meterRegistry, "returned");
+        this.spillFailures = failureCounter(meterRegistry, "spill_error");
+        this.deadLettered = Counter.builder("rabbitmq.publisher.dead-lettered")
+                .description("Немаршрутизируемые команды, записанные в журнал dead-letter")
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.publisher.buffer.depth", buffer, BlockingQueue::size)
+                .description("Команды в буфере, ожидающие публикации")
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.publisher.inflight", inFlight, Map::size)
+                .description("Опубликованные команды, ожидающие подтверждения")
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.publisher.spill.bytes", spillFile, CommandSpillFile::size)
+                .description("Размер локального журнала неотправленных команд")
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.publisher.broker.available", this, sender -> sender.brokerAvailable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("rabbitmq.publisher.failures")
+                .description("Неудачные публикации команд по причине")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Принимает команду к отправке. Будущее завершается успешно, когда команда подтверждена
+     * брокером или надёжно записана на диск, и с ошибкой - если её не удалось сохранить нигде.
+     */
+    public CompletableFuture<Void> sendCommand(Message command) {
+        log.debug("Команда поставлена в очередь на отправку: type={}, id={}",
+                command.getMessageProperties().getHeader(EmployeeCommandEncoder.COMMAND_TYPE_HEADER),
+                command.getMessageProperties().getMessageId());
+        PendingCommand pending = new PendingCommand(command);
+        if (spillBacklog) {
+            spill(List.of(pending), "журнал ещё не отправлен");
+        } else if (!running || !buffer.offer(pending)) {
+            spill(List.of(pending), running ? "буфер отправки заполнен" : "отправитель остановлен");
+        }
+        return pending.accepted;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        publisherThread = new Thread(this::publishLoop, "rabbitmq-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+        // Журнал, оставшийся с прошлого запуска, отправится при первой проверке
+        lastReplayCheck = 0;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            publisherThread.join(TimeUnit.NANOSECONDS.toMillis(confirmTimeoutNanos));
+            if (replayThread != null) {
+                replayThread.join(POLL_INTERVAL_MS * 10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<PendingCommand> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        remaining.addAll(inFlight.values());
+        inFlight.clear();
+        spill(remaining, "остановка приложения");
+        try {
+            spillFile.close();
+            deadLetterFile.close();
+        } catch (IOException e) {
+            log.error("Ошибка при закрытии журнала команд: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publishLoop() {
+        List<PendingCommand> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingCommand first = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    publish(batch);
+                    batch.clear();
+                }
+                expireUnconfirmed();
+                if (running) {
+                    checkBrokerAndReplay();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                spill(batch, "поток отправки прерван");
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка в потоке отправки команд: {}", e.getMessage(), e);
+                spill(batch, "ошибка потока отправки");
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<PendingCommand> batch) {
+        if (!brokerAvailable) {
+            spill(batch, "RabbitMQ недоступен");
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCommand pending = batch.get(i);
+            CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+            pending.sentNanos = System.nanoTime();
+            inFlight.put(correlation.getId(), pending);
+            correlation.getFuture().whenComplete((confirm, error) ->
+                    onConfirm(correlation, confirm != null && confirm.isAck() && error == null,
+                            error != null ? error.getMessage() : confirm.getReason()));
+            try {
+                rabbitTemplate.send(exchange, routingKey, pending.message, correlation);
+                sendLatency.record(System.nanoTime() - pending.sentNanos, TimeUnit.NANOSECONDS);
+            } catch (AmqpException e) {
+                inFlight.remove(correlation.getId());
+                sendFailures.increment();
+                brokerAvailable = false;
+                log.error("RabbitMQ недоступен, команды пишутся в локальный журнал: {}", e.getMessage());
+                spill(batch.subList(i, batch.size()), "RabbitMQ недоступен");
+                return;
+            }
+        }
+    }
+
+    private void onConfirm(CorrelationData correlation, boolean ack, String reason) {
+        PendingCommand pending = inFlight.remove(correlation.getId());
+        if (pending == null) {
+            // Уже записана в журнал по таймауту подтверждения
+            return;
+        }
+        if (ack && correlation.getReturned() == null) {
+            confirmLatency.record(System.nanoTime() - pending.sentNanos, TimeUnit.NANOSECONDS);
+            pending.accept(acceptLatency);
+            return;
+        }
+        nacked.increment();
+        if (correlation.getReturned() != null) {
+            returnFailures.increment();
+            deadLetter(pending, correlation.getReturned().getReplyText());
+            return;
+        }
+        nackFailures.increment();
+        spill(List.of(pending), "nack: " + reason);
+    }
+
+    private void expireUnconfirmed() {
+        long now = System.nanoTime();
+        if (TimeUnit.NANOSECONDS.toMillis(now - lastExpireCheck) < EXPIRE_CHECK_INTERVAL_MS) {
+            return;
+        }
+        lastExpireCheck = now;
+
+        List<PendingCommand> expired = new ArrayList<>();
+        inFlight.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().sentNanos > confirmTimeoutNanos) {
+                expired.add(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+        confirmTimeouts.increment(expired.size());
+        spill(expired, "нет подтверждения за отведённое время");
     }
 
-    public void sendMessage(Object message) {
-        log.info("Отправка сообщения в RabbitMQ: {}", message);
+    private void checkBrokerAndReplay() {
+        long now = System.currentTimeMillis();
+        if (now - lastReplayCheck < replayIntervalMs) {
+            return;
+        }
+        lastReplayCheck = now;
+
+        if (!brokerAvailable) {
+            try {
+                rabbitTemplate.execute(channel -> channel.isOpen());
+                brokerAvailable = true;
+                log.info("RabbitMQ снова доступен, отправка команд возобновлена");
+            } catch (AmqpException e) {
+                log.debug("RabbitMQ по-прежнему недоступен: {}", e.getMessage());
+                return;
+            }
+        }
+        if (replaying.compareAndSet(false, true)) {
+            replayThread = new Thread(this::replay, "rabbitmq-spill-replay");
+            replayThread.setDaemon(true);
+            replayThread.start();
+        }
+    }
+
+    /**
+     * Отправляет журналы по одному, пока они не кончатся, и только тогда снимает признак spillBacklog.
+     * Если журнал отправлен не полностью (брокер снова недоступен), он повторится при следующей проверке.
+     */
+    private void replay() {
         try {
-            rabbitTemplate.convertAndSend(exchange, routingKey, message);
-            log.debug("Сообщение успешно отправлено");
-        } catch (Exception e) {
-            log.error("Ошибка при отправке сообщения в RabbitMQ: {}", e.getMessage(), e);
+            while (running && brokerAvailable) {
+                List<Path> files = new ArrayList<>(spillFile.pendingReplayFiles());
+                Path rotated = spillFile.rotateForReplay();
+                if (rotated != null) {
+                    files.add(rotated);
+                }
+                if (files.isEmpty() && finishBacklog()) {
+                    return;
+                }
+                for (Path file : files) {
+                    if (!running || !brokerAvailable || !activeReplays.add(file)) {
+                        return;
+                    }
+                    if (!replayFile(file).get()) {
+                        return;
+                    }
+                }
+            }
+        } catch (IOException | ExecutionException e) {
+            log.error("Ошибка при повторной отправке команд из журнала: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private boolean finishBacklog() throws IOException {
+        synchronized (spillLock) {
+            if (spillFile.size() > 0 || !spillFile.pendingReplayFiles().isEmpty()) {
+                return false;
+            }
+            if (spillBacklog) {
+                spillBacklog = false;
+                log.info("Журнал команд отправлен, новые команды снова идут напрямую в RabbitMQ");
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Ставит команды из файла обратно в буфер. Файл удаляется, только когда каждая его команда
+     * подтверждена брокером; если хоть одна не дошла, файл остаётся и повторяется первым.
+     *
+     * @return будущее, которое завершается true, когда файл отправлен и удалён, или false,
+     * если часть команд не дошла до брокера и файл будет повторён
+     */
+    private CompletableFuture<Boolean> replayFile(Path file) throws IOException, InterruptedException {
+        log.info("Повторная отправка команд из журнала {}", file.getFileName());
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        AtomicLong remaining = new AtomicLong(1);
+        AtomicBoolean incomplete = new AtomicBoolean();
+        Runnable release = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(finishReplay(file, incomplete.get()));
+            }
+        };
+
+        long count = 0;
+        try (CommandSpillFile.RecordReader reader = CommandSpillFile.open(file)) {
+            Message message;
+            while ((message = reader.next()) != null) {
+                if (!running || incomplete.get()) {
+                    incomplete.set(true);
+                    break;
+                }
+                PendingCommand pending = new PendingCommand(message, true);
+                remaining.incrementAndGet();
+                pending.accepted.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        incomplete.set(true);
+                    }
+                    release.run();
+                });
+                buffer.put(pending);
+                count++;
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            incomplete.set(true);
+            throw e;
+        } finally {
+            release.run();
+        }
+        log.info("Из журнала {} повторно поставлено в очередь {} команд", file.getFileName(), count);
+        return done;
+    }
+
+    private boolean finishReplay(Path file, boolean incomplete) {
+        activeReplays.remove(file);
+        if (incomplete) {
+            log.warn("Журнал {} отправлен не полностью и будет повторён", file.getFileName());
+            return false;
+        }
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.error("Не удалось удалить отправленный журнал {}: {}", file.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void spill(Collection<PendingCommand> commands, String reason) {
+        List<PendingCommand> live = new ArrayList<>(commands.size());
+        for (PendingCommand pending : commands) {
+            if (pending.replayed) {
+                // Остаётся в своём файле журнала, который повторится раньше текущего
+                pending.accepted.completeExceptionally(new AmqpException("команда из журнала не отправлена: " + reason));
+            } else {
+                live.add(pending);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        List<Message> messages = new ArrayList<>(live.size());
+        for (PendingCommand pending : live) {
+            messages.add(pending.message);
+        }
+        try {
+            synchronized (spillLock) {
+                spillFile.append(messages);
+                spillBacklog = true;
+            }
+            spilled.increment(messages.size());
+            log.warn("{} команд записано в локальный журнал: {}", messages.size(), reason);
+            for (PendingCommand pending : live) {
+                pending.accept(acceptLatency);
+            }
+        } catch (IOException e) {
+            spillFailures.increment(messages.size());
+            log.error("Команды потеряны - не удалось записать {} команд в журнал ({}): {}",
+                    messages.size(), reason, e.getMessage(), e);
+            for (PendingCommand pending : live) {
+                pending.accepted.completeExceptionally(new UncheckedIOException(e));
+            }
+        }
+    }
+
+    private void deadLetter(PendingCommand pending, String replyText) {
+        try {
+            deadLetterFile.append(List.of(pending.message));
+            deadLettered.increment();
+            log.error("Команда {} не маршрутизирована брокером ({}) и записана в журнал dead-letter",
+                    pending.message.getMessageProperties().getMessageId(), replyText);
+            pending.accept(acceptLatency);
+        } catch (IOException e) {
+            spillFailures.increment();
+            log.error("Команда {} потеряна - не удалось записать её в журнал dead-letter: {}",
+                    pending.message.getMessageProperties().getMessageId(), e.getMessage(), e);
+            pending.accepted.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private static final class PendingCommand {
+        private final Message message;
+        // Прочитана из файла журнала при повторной отправке
+        private final boolean replayed;
+        private final CompletableFuture<Void> accepted = new CompletableFuture<>();
+        private final long enqueuedNanos = System.nanoTime();
+        private volatile long sentNanos;
+
+        private PendingCommand(Message message) {
+            this(message, false);
+        }
+
+        private PendingCommand(Message message, boolean replayed) {
+            this.message = message;
+            this.replayed = replayed;
+        }
+
+        private void accept(Timer acceptLatency) {
+            if (accepted.complete(null)) {
+                acceptLatency.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+            }
         }
     }
 }
@@ -1,51 +1,193 @@
 package org.example.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.config.CacheKeyspace;
+import org.example.domainservice.EmployeeChangedEvent;
 import org.example.dto.EmployeeDto;
+import org.example.dto.EmployeePageDto;
+import org.example.dto.EmployeeStatsDto;
+import org.example.grpc.EmployeeDtoMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class RedisCacheService {
     private static final Logger log = LoggerFactory.getLogger(RedisCacheService.class);
-    private static final String EMPLOYEE_CACHE_KEY_PREFIX = "employee:";
-    private static final String ALL_EMPLOYEES_CACHE_KEY = "employees:all";
     private static final long CACHE_TTL_HOURS = 1L;
+    private static final long CACHE_TTL_MS = TimeUnit.HOURS.toMillis(CACHE_TTL_HOURS);
+
+    private static final int ALL_EMPLOYEES_SCAN_COUNT = 1000;
+    // domain-service обновляет агрегаты после коммита, а событие может опередить это обновление -
+    // короткий TTL ограничивает время жизни такого снимка
+    private static final long STATS_TTL_SECONDS = 60L;
+
+    // KEYS[1] - сотрудник, KEYS[2] - версия последнего применённого события,
+    // KEYS[3] - хэш всех сотрудников, KEYS[4] - счётчик изменений хэша.
+    // Хэш правится только если он уже есть: частично заполненный хэш выглядел бы как полный список.
+    // Возвращает 1 если событие применено, 0 если эта версия уже применена, -1 если событие устарело.
+    private static final byte[] APPLY_UPSERT_SCRIPT = (
+            "local current = tonumber(redis.call('get', KEYS[2]) or '0') " +
+            "local version = tonumber(ARGV[1]) " +
+            "if version < current then return -1 end " +
+            "if version == current then return 0 end " +
+            "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "redis.call('set', KEYS[2], ARGV[1], 'PX', ARGV[3]) " +
+            "if redis.call('exists', KEYS[3]) == 1 then redis.call('hset', KEYS[3], ARGV[4], ARGV[2]) end " +
+            "redis.call('incr', KEYS[4]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] APPLY_DELETE_SCRIPT = (
+            "local current = tonumber(redis.call('get', KEYS[2]) or '0') " +
+            "local version = tonumber(ARGV[1]) " +
+            "if version < current then return -1 end " +
+            "if version == current then return 0 end " +
+            "redis.call('del', KEYS[1]) " +
+            "redis.call('set', KEYS[2], ARGV[1], 'PX', ARGV[2]) " +
+            "redis.call('hdel', KEYS[3], ARGV[3]) " +
+            "redis.call('incr', KEYS[4]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    // Публикация полного списка, собранного во временном хэше KEYS[1]: если с начала загрузки
+    // (значение счётчика ARGV[1]) пришло хоть одно изменение, снимок мог устареть и отбрасывается.
+    private static final byte[] PUBLISH_ALL_SCRIPT = (
+            "if (redis.call('get', KEYS[3]) or '0') ~= ARGV[1] then redis.call('del', KEYS[1]) return 0 end " +
+            "redis.call('rename', KEYS[1], KEYS[2]) " +
+            "redis.call('pexpire', KEYS[2], ARGV[2]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    // Значение, прочитанное через gRPC, не знает своей версии: если по сотруднику уже есть
+    // версия из события, кэш заполнен событием (или сотрудник удалён) и перезаписывать его нельзя.
+    private static final byte[] CACHE_IF_UNVERSIONED_SCRIPT = (
+            "if redis.call('exists', KEYS[2]) == 1 then return 0 end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    // Сброс сотрудника в пространстве ключей другого формата (выкладка): KEYS[1] - сотрудник,
+    // KEYS[2] - хэш всех сотрудников, KEYS[3] - счётчик изменений, KEYS[4] - индекс страниц.
+    // Значения другого формата отсюда не записать, поэтому записи удаляются; страницы сбрасываются
+    // все с верхней границей не ниже id - с запасом, зато без разбора ключей.
+    private static final byte[] INVALIDATE_PEER_SCRIPT = (
+            "redis.call('del', KEYS[1]) " +
+            "redis.call('hdel', KEYS[2], ARGV[1]) " +
+            "redis.call('incr', KEYS[3]) " +
+            "local pages = redis.call('zrangebyscore', KEYS[4], ARGV[1], '+inf') " +
+            "for _, page in ipairs(pages) do redis.call('del', page) end " +
+            "if #pages > 0 then redis.call('zrem', KEYS[4], unpack(pages)) end " +
+            "return #pages").getBytes(StandardCharsets.UTF_8);
+
+    private final String employeeKeyPrefix;
+    private final String employeeVersionKeyPrefix;
+    private final String allEmployeesKey;
+    private final String allEmployeesEpochKey;
+    private final String pageKeyPrefix;
+    private final String pageIndexKey;
+    private final String statsKey;
+    private final List<CacheKeyspace> peerKeyspaces;
 
     private final RedisTemplate<String, EmployeeDto> employeeRedisTemplate;
-    private final RedisTemplate<String, List<EmployeeDto>> employeeListRedisTemplate;
+    private final RedisTemplate<String, EmployeePageDto> employeePageRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final EmployeeNearCache nearCache;
     private final ObjectMapper objectMapper;
 
+    private final CacheOperation getEmployeeOperation;
+    private final CacheOperation getEmployeesOperation;
+    private final CacheOperation getAllOperation;
+    private final CacheOperation getStatsOperation;
+    private final CacheOperation getPageOperation;
+    private final CacheOperation putEmployeeOperation;
+    private final CacheOperation putEmployeesOperation;
+    private final CacheOperation putAllOperation;
+    private final CacheOperation putStatsOperation;
+    private final CacheOperation putPageOperation;
+    private final CacheOperation evictAllOperation;
+    private final CacheOperation evictPagesOperation;
+    private final CacheOperation applyChangeOperation;
+    private final CacheOperation invalidatePeerOperation;
+
     public RedisCacheService(
             RedisTemplate<String, EmployeeDto> employeeRedisTemplate,
-            RedisTemplate<String, List<EmployeeDto>> employeeListRedisTemplate,
-            ObjectMapper objectMapper) {
+            RedisTemplate<String, EmployeePageDto> employeePageRedisTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            EmployeeNearCache nearCache,
+            CacheKeyspace keyspace,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
         this.employeeRedisTemplate = employeeRedisTemplate;
-        this.employeeListRedisTemplate = employeeListRedisTemplate;
+        this.employeePageRedisTemplate = employeePageRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
         this.objectMapper = objectMapper;
+        this.employeeKeyPrefix = keyspace.key("employee:");
+        this.employeeVersionKeyPrefix = keyspace.key("employee:version:");
+        this.allEmployeesKey = keyspace.key("employees:all:hash");
+        this.allEmployeesEpochKey = keyspace.key("employees:all:epoch");
+        this.pageKeyPrefix = keyspace.key("employees:page:");
+        this.pageIndexKey = keyspace.key("employees:pages");
+        this.statsKey = keyspace.key("employees:stats");
+        this.peerKeyspaces = keyspace.peers();
+
+        this.getEmployeeOperation = CacheOperation.read(meterRegistry, "get_employee");
+        this.getEmployeesOperation = CacheOperation.read(meterRegistry, "get_employees");
+        this.getAllOperation = CacheOperation.read(meterRegistry, "get_all");
+        this.getStatsOperation = CacheOperation.read(meterRegistry, "get_stats");
+        this.getPageOperation = CacheOperation.read(meterRegistry, "get_page");
+        this.putEmployeeOperation = CacheOperation.write(meterRegistry, "put_employee");
+        this.putEmployeesOperation = CacheOperation.write(meterRegistry, "put_employees");
+        this.putAllOperation = CacheOperation.write(meterRegistry, "put_all");
+        this.putStatsOperation = CacheOperation.write(meterRegistry, "put_stats");
+        this.putPageOperation = CacheOperation.write(meterRegistry, "put_page");
+        this.evictAllOperation = CacheOperation.write(meterRegistry, "evict_all");
+        this.evictPagesOperation = CacheOperation.write(meterRegistry, "evict_pages");
+        this.applyChangeOperation = CacheOperation.write(meterRegistry, "apply_change");
+        this.invalidatePeerOperation = CacheOperation.write(meterRegistry, "invalidate_peer");
     }
 
     public EmployeeDto getCachedEmployee(Long employeeId) {
-        String key = EMPLOYEE_CACHE_KEY_PREFIX + employeeId;
+        EmployeeDto nearCached = nearCache.get(employeeId);
+        if (nearCached != null) {
+            log.debug("Сотрудник с ID: {} найден в локальном кэше", employeeId);
+            return nearCached;
+        }
+
+        String key = employeeKeyPrefix + employeeId;
         log.debug("Попытка получить сотрудника из кэша по ключу: {}", key);
 
+        long started = System.nanoTime();
         try {
             Object cachedEmployee = employeeRedisTemplate.opsForValue().get(key);
             if (cachedEmployee != null) {
-                log.info("КЭШ НАЙДЕН - Успешно получен сотрудник с ID: {} из кэша Redis", employeeId);
-                log.debug("Необработанное значение из кэша: {}", cachedEmployee);
-                EmployeeDto employee = objectMapper.convertValue(cachedEmployee, EmployeeDto.class);
+                log.debug("КЭШ НАЙДЕН - Успешно получен сотрудник с ID: {} из кэша Redis", employeeId);
+                EmployeeDto employee = toEmployee(cachedEmployee);
                 log.debug("Десериализованный сотрудник: {}", employee);
+                nearCache.put(employeeId, employee);
+                getEmployeeOperation.hit(started);
                 return employee;
             }
-            log.info("КЭШ ПРОПУЩЕН - Сотрудник с ID: {} не найден в кэше Redis", employeeId);
+            getEmployeeOperation.miss(started);
+            log.debug("КЭШ ПРОПУЩЕН - Сотрудник с ID: {} не найден в кэше Redis", employeeId);
         } catch (Exception e) {
+            getEmployeeOperation.error(started);
             log.error("Ошибка при получении сотрудника с ID: {} из кэша: {}", employeeId, e.getMessage());
             log.debug("Детали ошибки:", e);
         }
@@ -53,96 +195,544 @@ public class RedisCacheService {
     }
 
     public void cacheEmployee(Long id, EmployeeDto employee) {
-        String key = EMPLOYEE_CACHE_KEY_PREFIX + id;
+        String key = employeeKeyPrefix + id;
         log.debug("Попытка кэширования сотрудника с ключом: {}", key);
 
+        long started = System.nanoTime();
         try {
-            employeeRedisTemplate.opsForValue().set(key, employee, CACHE_TTL_HOURS, TimeUnit.HOURS);
-            log.info("КЭШ ОБНОВЛЕН - Успешно кэширован сотрудник с ID: {} в Redis", id);
-            log.debug("Детали кэшированного сотрудника: {}", employee);
-            log.debug("Время жизни кэша установлено на {} часов", CACHE_TTL_HOURS);
-
-            log.debug("Инициация обновления кэша всех сотрудников после кэширования отдельного сотрудника");
-            updateAllEmployeesCache();
-            log.info("Операции кэширования завершены для сотрудника с ID: {}", id);
+            Long cached = employeeRedisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().eval(CACHE_IF_UNVERSIONED_SCRIPT, ReturnType.INTEGER, 2,
+                            bytes(key), bytes(employeeVersionKeyPrefix + id), serialize(employee), bytes(CACHE_TTL_MS)));
+            putEmployeeOperation.success(started);
+            if (cached == null || cached == 0) {
+                log.debug("Сотрудник с ID: {} уже обновлён событием, значение из gRPC не кэшируется", id);
+                return;
+            }
+            nearCache.put(id, employee);
+            log.debug("КЭШ ОБНОВЛЕН - Успешно кэширован сотрудник с ID: {} в Redis", id);
         } catch (Exception e) {
+            putEmployeeOperation.error(started);
             log.error("Ошибка при кэшировании сотрудника с ID: {}: {}", id, e.getMessage());
             log.debug("Детали ошибки:", e);
         }
     }
 
 
-    public List<EmployeeDto> getCachedAllEmployees() {
-        log.debug("Попытка получить всех сотрудников из кэша");
+    public Map<Long, EmployeeDto> getCachedEmployees(Collection<Long> ids) {
+        Map<Long, EmployeeDto> found = new HashMap<>(ids.size() * 2);
+        List<Long> remoteIds = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            EmployeeDto nearCached = nearCache.get(id);
+            if (nearCached != null) {
+                found.put(id, nearCached);
+            } else {
+                remoteIds.add(id);
+            }
+        }
+        if (remoteIds.isEmpty()) {
+            return found;
+        }
+
+        List<String> keys = new ArrayList<>(remoteIds.size());
+        for (Long id : remoteIds) {
+            keys.add(employeeKeyPrefix + id);
+        }
+        long started = System.nanoTime();
+        int nearHits = found.size();
+        try {
+            List<?> values = employeeRedisTemplate.opsForValue().multiGet(keys);
+            if (values != null) {
+                for (int i = 0; i < values.size(); i++) {
+                    Object cachedEmployee = values.get(i);
+                    if (cachedEmployee != null) {
+                        EmployeeDto employee = toEmployee(cachedEmployee);
+                        found.put(remoteIds.get(i), employee);
+                        nearCache.put(remoteIds.get(i), employee);
+                    }
+                }
+            }
+            // Попадания и промахи считаются по ключам, время - по запросу MGET целиком
+            getEmployeesOperation.hits(started, found.size() - nearHits, remoteIds.size() - (found.size() - nearHits));
+        } catch (Exception e) {
+            getEmployeesOperation.error(started);
+            log.error("Ошибка при пакетном получении {} сотрудников из кэша: {}", keys.size(), e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+        log.debug("Пакетный запрос к кэшу: найдено {} из {} сотрудников", found.size(), ids.size());
+        return found;
+    }
+
+    public void cacheEmployees(Map<Long, EmployeeDto> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
         try {
-            Object cachedEmployees = employeeListRedisTemplate.opsForValue().get(ALL_EMPLOYEES_CACHE_KEY);
+            List<Map.Entry<Long, EmployeeDto>> entries = new ArrayList<>(employees.entrySet());
+            List<Object> results = employeeRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<Long, EmployeeDto> entry : entries) {
+                    connection.scriptingCommands().eval(CACHE_IF_UNVERSIONED_SCRIPT, ReturnType.INTEGER, 2,
+                            bytes(employeeKeyPrefix + entry.getKey()), bytes(employeeVersionKeyPrefix + entry.getKey()),
+                            serialize(entry.getValue()), bytes(CACHE_TTL_MS));
+                }
+                return null;
+            });
+            for (int i = 0; i < entries.size(); i++) {
+                if (i < results.size() && Long.valueOf(1).equals(results.get(i))) {
+                    nearCache.put(entries.get(i).getKey(), entries.get(i).getValue());
+                }
+            }
+            putEmployeesOperation.success(started);
+            log.debug("КЭШ ОБНОВЛЕН - Пакетно кэшировано {} сотрудников в Redis", employees.size());
+        } catch (Exception e) {
+            putEmployeesOperation.error(started);
+            log.error("Ошибка при пакетном кэшировании {} сотрудников: {}", employees.size(), e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
 
-            if (cachedEmployees != null) {
-                List<EmployeeDto> employees = (List<EmployeeDto>) cachedEmployees;
-                log.info("КЭШ НАЙДЕН - Получены все сотрудники из кэша Redis. Количество: {}", employees.size());
-                return employees;
+    /**
+     * Читает хэш всех сотрудников порциями через HSCAN; пустой список означает промах кэша.
+     * HSCAN может вернуть поле повторно, если хэш меняется во время обхода, поэтому записи
+     * собираются по id: повтор заменяет прежнее значение, а TreeMap сразу даёт порядок по id.
+     */
+    public List<EmployeeDto> getCachedAllEmployees() {
+        log.debug("Попытка получить всех сотрудников из кэша");
+        Map<Long, EmployeeDto> employees = new TreeMap<>();
+        ScanOptions options = ScanOptions.scanOptions().count(ALL_EMPLOYEES_SCAN_COUNT).build();
+        long started = System.nanoTime();
+        try (Cursor<Map.Entry<Object, Object>> cursor = employeeRedisTemplate.opsForHash().scan(allEmployeesKey, options)) {
+            while (cursor.hasNext()) {
+                EmployeeDto employee = toEmployee(cursor.next().getValue());
+                employees.put(employee.getId(), employee);
             }
         } catch (Exception e) {
+            getAllOperation.error(started);
             log.error("Ошибка при получении всех сотрудников из кэша", e);
+            return Collections.emptyList();
+        }
+
+        if (employees.isEmpty()) {
+            getAllOperation.miss(started);
+            log.debug("КЭШ ПРОПУЩЕН - Сотрудники не найдены в кэше Redis");
+            return Collections.emptyList();
         }
-        log.warn("КЭШ ПРОПУЩЕН - Сотрудники не найдены в кэше Redis");
-        return Collections.emptyList();
+        getAllOperation.hit(started);
+        log.debug("КЭШ НАЙДЕН - Получены все сотрудники из кэша Redis. Количество: {}", employees.size());
+        return new ArrayList<>(employees.values());
     }
 
+    /**
+     * Текущее значение счётчика изменений общего списка. Берётся до загрузки списка через gRPC
+     * и передаётся в {@link #cacheAllEmployees}, чтобы не опубликовать устаревший снимок.
+     */
+    public long allEmployeesEpoch() {
+        try {
+            String epoch = stringRedisTemplate.opsForValue().get(allEmployeesEpochKey);
+            return epoch == null ? 0 : Long.parseLong(epoch);
+        } catch (Exception e) {
+            log.error("Ошибка при чтении счётчика изменений списка сотрудников: {}", e.getMessage());
+            return -1;
+        }
+    }
 
-    public void cacheAllEmployees(List<EmployeeDto> employees) {
+    public void cacheAllEmployees(List<EmployeeDto> employees, long epoch) {
         log.debug("Попытка кэширования списка всех сотрудников");
+        if (employees == null || employees.isEmpty()) {
+            log.warn("Невозможно кэшировать пустой или null список сотрудников");
+            return;
+        }
+        if (epoch < 0) {
+            return;
+        }
+
+        // Хэш собирается под временным ключом и подменяет текущий атомарно, чтобы читатели
+        // никогда не видели его заполненным наполовину
+        String buildKey = allEmployeesKey + ":build:" + UUID.randomUUID();
+        long started = System.nanoTime();
         try {
-            if (employees == null || employees.isEmpty()) {
-                log.warn("Невозможно кэшировать пустой или null список сотрудников");
-                return;
+            Map<String, EmployeeDto> chunk = new HashMap<>(ALL_EMPLOYEES_SCAN_COUNT * 2);
+            for (EmployeeDto employee : employees) {
+                chunk.put(employee.getId().toString(), employee);
+                if (chunk.size() == ALL_EMPLOYEES_SCAN_COUNT) {
+                    employeeRedisTemplate.opsForHash().putAll(buildKey, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                employeeRedisTemplate.opsForHash().putAll(buildKey, chunk);
             }
 
-            employeeListRedisTemplate.opsForValue().set(ALL_EMPLOYEES_CACHE_KEY, employees, 1, TimeUnit.HOURS);
-            log.info("КЭШ ОБНОВЛЕН - Успешно кэшировано {} сотрудников в Redis", employees.size());
-            log.debug("Кэшированные сотрудники: {}", employees);
+            Long published = employeeRedisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().eval(PUBLISH_ALL_SCRIPT, ReturnType.INTEGER, 3,
+                            bytes(buildKey), bytes(allEmployeesKey), bytes(allEmployeesEpochKey),
+                            bytes(epoch), bytes(CACHE_TTL_MS)));
+            putAllOperation.success(started);
+            if (published != null && published == 1) {
+                log.debug("КЭШ ОБНОВЛЕН - Успешно кэшировано {} сотрудников в Redis", employees.size());
+            } else {
+                log.info("Список сотрудников изменился во время загрузки, снимок не кэшируется");
+            }
         } catch (Exception e) {
+            putAllOperation.error(started);
+            employeeRedisTemplate.delete(buildKey);
             log.error("Ошибка при кэшировании всех сотрудников", e);
         }
     }
 
 
-    public void evictEmployee(Long id) {
-        String key = EMPLOYEE_CACHE_KEY_PREFIX + id;
-        log.debug("Попытка удаления сотрудника из кэша, ключ: {}", key);
-
+    public void evictAllEmployees() {
+        log.debug("Попытка удаления всех сотрудников из кэша");
+        long started = System.nanoTime();
         try {
-            Boolean deleted = employeeRedisTemplate.delete(key);
+            Boolean deleted = employeeRedisTemplate.delete(allEmployeesKey);
+            stringRedisTemplate.opsForValue().increment(allEmployeesEpochKey);
+            for (CacheKeyspace peer : peerKeyspaces) {
+                employeeRedisTemplate.delete(peer.key("employees:all:hash"));
+                stringRedisTemplate.opsForValue().increment(peer.key("employees:all:epoch"));
+            }
+            evictAllOperation.success(started);
             if (Boolean.TRUE.equals(deleted)) {
-                log.info("КЭШ УДАЛЕН - Успешно удален сотрудник с ID: {} из кэша Redis", id);
+                log.debug("КЭШ УДАЛЕН - Успешно удалены все сотрудники из кэша Redis");
             } else {
-                log.info("КЭШ ПРОПУЩЕН - Запись в кэше не найдена для сотрудника с ID: {}", id);
+                log.debug("КЭШ ПРОПУЩЕН - Записи в кэше не найдены для всех сотрудников");
             }
-
-            log.debug("Инициация удаления кэша всех сотрудников");
-            evictAllEmployees();
-            log.info("Операции удаления кэша завершены для сотрудника с ID: {}", id);
         } catch (Exception e) {
-            log.error("Ошибка при удалении сотрудника с ID: {} из кэша: {}", id, e.getMessage());
+            evictAllOperation.error(started);
+            log.error("Ошибка при удалении кэша всех сотрудников: {}", e.getMessage());
             log.debug("Детали ошибки:", e);
         }
     }
+    /**
+     * Применяет событие об изменении сотрудника из domain-service: запись сотрудника обновляется
+     * или удаляется на месте (с проверкой версии) вместе с полем в хэше всех сотрудников,
+     * а сбрасываются только затронутые страницы.
+     * Событие приходит в каждый экземпляр gateway; Redis меняет первый, остальные обновляют только локальный кэш.
+     * Первый же сбрасывает сотрудника в ключах другого формата, если выкладка формата не завершена.
+     */
+    public void applyChange(EmployeeChangedEvent event) {
+        long id = event.getEmployeeId();
+        String key = employeeKeyPrefix + id;
+        String versionKey = employeeVersionKeyPrefix + id;
+        boolean deleted = event.getType() == EmployeeChangedEvent.ChangeType.DELETED;
 
-    public void evictAllEmployees() {
-        log.debug("Попытка удаления всех сотрудников из кэша");
+        long started = System.nanoTime();
         try {
-            Boolean deleted = employeeListRedisTemplate.delete(ALL_EMPLOYEES_CACHE_KEY);
-            if (Boolean.TRUE.equals(deleted)) {
-                log.info("КЭШ УДАЛЕН - Успешно удалены все сотрудники из кэша Redis");
+            EmployeeDto employee = deleted ? null : EmployeeDtoMapper.toDto(event.getEmployee());
+            Long result = employeeRedisTemplate.execute((RedisCallback<Long>) connection -> deleted
+                    ? connection.scriptingCommands().eval(APPLY_DELETE_SCRIPT, ReturnType.INTEGER, 4,
+                            bytes(key), bytes(versionKey), bytes(allEmployeesKey), bytes(allEmployeesEpochKey),
+                            bytes(event.getVersion()), bytes(CACHE_TTL_MS), bytes(id))
+                    : connection.scriptingCommands().eval(APPLY_UPSERT_SCRIPT, ReturnType.INTEGER, 4,
+                            bytes(key), bytes(versionKey), bytes(allEmployeesKey), bytes(allEmployeesEpochKey),
+                            bytes(event.getVersion()), serialize(employee), bytes(CACHE_TTL_MS), bytes(id)));
+            applyChangeOperation.success(started);
+            if (result == null || result < 0) {
+                log.debug("Устаревшее событие {} версии {} для сотрудника с ID: {} пропущено", event.getType(), event.getVersion(), id);
+                return;
+            }
+
+            if (deleted) {
+                nearCache.invalidateLocal(id);
             } else {
-                log.info("КЭШ ПРОПУЩЕН - Записи в кэше не найдены для всех сотрудников");
+                nearCache.put(id, employee);
+            }
+            if (result == 0) {
+                return;
             }
+
+            if (event.getType() == EmployeeChangedEvent.ChangeType.CREATED) {
+                evictTailPages();
+            } else {
+                evictPagesContaining(id);
+            }
+            invalidatePeerKeyspaces(id);
+            log.debug("КЭШ ОБНОВЛЕН - Применено событие {} версии {} для сотрудника с ID: {}", event.getType(), event.getVersion(), id);
         } catch (Exception e) {
-            log.error("Ошибка при удалении кэша всех сотрудников: {}", e.getMessage());
+            applyChangeOperation.error(started);
+            log.error("Ошибка при применении события для сотрудника с ID: {}: {}", id, e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
+
+    /**
+     * Статистика кэшируется вместе со значением счётчика изменений, прочитанным до её загрузки
+     * ({@link #allEmployeesEpoch}). Каждое применённое изменение увеличивает счётчик, поэтому
+     * запись с другим значением считается устаревшей - отдельная инвалидация не нужна.
+     */
+    public EmployeeStatsDto getCachedStats() {
+        long started = System.nanoTime();
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(List.of(statsKey, allEmployeesEpochKey));
+            String cached = values == null ? null : values.get(0);
+            if (cached != null) {
+                CachedStats stats = objectMapper.readValue(cached, CachedStats.class);
+                String epoch = values.get(1) == null ? "0" : values.get(1);
+                if (Long.toString(stats.getEpoch()).equals(epoch)) {
+                    getStatsOperation.hit(started);
+                    log.debug("КЭШ НАЙДЕН - Статистика сотрудников получена из кэша Redis");
+                    return stats.getStats();
+                }
+            }
+            getStatsOperation.miss(started);
+            log.debug("КЭШ ПРОПУЩЕН - Актуальной статистики сотрудников в кэше нет");
+        } catch (Exception e) {
+            getStatsOperation.error(started);
+            log.error("Ошибка при получении статистики сотрудников из кэша: {}", e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+        return null;
+    }
+
+    public void cacheStats(EmployeeStatsDto stats, long epoch) {
+        if (epoch < 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            String value = objectMapper.writeValueAsString(new CachedStats(epoch, stats));
+            stringRedisTemplate.opsForValue().set(statsKey, value, STATS_TTL_SECONDS, TimeUnit.SECONDS);
+            putStatsOperation.success(started);
+        } catch (Exception e) {
+            putStatsOperation.error(started);
+            log.error("Ошибка при кэшировании статистики сотрудников: {}", e.getMessage());
             log.debug("Детали ошибки:", e);
         }
     }
-    private void updateAllEmployeesCache() {
-        evictAllEmployees();
+
+    public EmployeePageDto getCachedPage(long afterId, int limit) {
+        String key = pageKey(afterId, limit);
+        log.debug("Попытка получить страницу сотрудников из кэша по ключу: {}", key);
+        long started = System.nanoTime();
+        try {
+            Object cachedPage = employeePageRedisTemplate.opsForValue().get(key);
+            if (cachedPage != null) {
+                getPageOperation.hit(started);
+                log.debug("КЭШ НАЙДЕН - Страница сотрудников после ID: {} получена из кэша Redis", afterId);
+                return cachedPage instanceof EmployeePageDto page
+                        ? page
+                        : objectMapper.convertValue(cachedPage, EmployeePageDto.class);
+            }
+            getPageOperation.miss(started);
+            log.debug("КЭШ ПРОПУЩЕН - Страница сотрудников после ID: {} не найдена в кэше Redis", afterId);
+        } catch (Exception e) {
+            getPageOperation.error(started);
+            log.error("Ошибка при получении страницы сотрудников из кэша: {}", e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+        return null;
+    }
+
+    public void cachePage(long afterId, int limit, EmployeePageDto page) {
+        String key = pageKey(afterId, limit);
+        // Страница индексируется по верхней границе своего диапазона id; последняя страница
+        // открыта справа, чтобы новые сотрудники сбрасывали только её.
+        double upperBound = page.isHasMore() && page.getNextAfter() != null
+                ? page.getNextAfter()
+                : Double.POSITIVE_INFINITY;
+        long started = System.nanoTime();
+        try {
+            employeePageRedisTemplate.opsForValue().set(key, page, CACHE_TTL_HOURS, TimeUnit.HOURS);
+            stringRedisTemplate.opsForZSet().add(pageIndexKey, key, upperBound);
+            stringRedisTemplate.expire(pageIndexKey, CACHE_TTL_HOURS, TimeUnit.HOURS);
+            putPageOperation.success(started);
+            log.debug("КЭШ ОБНОВЛЕН - Кэширована страница сотрудников после ID: {} ({} записей)",
+                    afterId, page.getEmployees().size());
+        } catch (Exception e) {
+            putPageOperation.error(started);
+            log.error("Ошибка при кэшировании страницы сотрудников после ID: {}: {}", afterId, e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
+
+    public void evictPagesContaining(Long id) {
+        long started = System.nanoTime();
+        try {
+            Set<String> candidates = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(pageIndexKey, id, Double.POSITIVE_INFINITY);
+            if (candidates == null || candidates.isEmpty()) {
+                evictPagesOperation.success(started);
+                return;
+            }
+            List<String> affected = new ArrayList<>();
+            for (String key : candidates) {
+                if (pageAfterId(key) < id) {
+                    affected.add(key);
+                }
+            }
+            evictPages(affected);
+            evictPagesOperation.success(started);
+            log.debug("КЭШ УДАЛЕН - Удалено {} страниц, содержащих сотрудника с ID: {}", affected.size(), id);
+        } catch (Exception e) {
+            evictPagesOperation.error(started);
+            log.error("Ошибка при удалении страниц с сотрудником ID: {} из кэша: {}", id, e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
+
+    public void evictTailPages() {
+        long started = System.nanoTime();
+        try {
+            Set<String> tailPages = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(pageIndexKey, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+            if (tailPages == null || tailPages.isEmpty()) {
+                evictPagesOperation.success(started);
+                return;
+            }
+            evictPages(tailPages);
+            evictPagesOperation.success(started);
+            log.debug("КЭШ УДАЛЕН - Удалено {} последних страниц сотрудников", tailPages.size());
+        } catch (Exception e) {
+            evictPagesOperation.error(started);
+            log.error("Ошибка при удалении последних страниц сотрудников из кэша: {}", e.getMessage());
+            log.debug("Детали ошибки:", e);
+        }
+    }
+
+    /**
+     * Сбрасывает сотрудника в пространствах ключей других форматов, пока идёт выкладка
+     * (см. {@link CacheKeyspace}). Ошибка здесь не отменяет уже применённое изменение.
+     */
+    private void invalidatePeerKeyspaces(long id) {
+        for (CacheKeyspace peer : peerKeyspaces) {
+            long started = System.nanoTime();
+            try {
+                employeeRedisTemplate.execute((RedisCallback<Long>) connection ->
+                        connection.scriptingCommands().eval(INVALIDATE_PEER_SCRIPT, ReturnType.INTEGER, 4,
+                                bytes(peer.key("employee:") + id), bytes(peer.key("employees:all:hash")),
+                                bytes(peer.key("employees:all:epoch")), bytes(peer.key("employees:pages")),
+                                bytes(id)));
+                invalidatePeerOperation.success(started);
+            } catch (Exception e) {
+                invalidatePeerOperation.error(started);
+                log.error("Ошибка при сбросе сотрудника с ID: {} в ключах с префиксом '{}': {}",
+                        id, peer.getPrefix(), e.getMessage());
+                log.debug("Детали ошибки:", e);
+            }
+        }
+    }
+
+    private void evictPages(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        employeePageRedisTemplate.delete(keys);
+        stringRedisTemplate.opsForZSet().remove(pageIndexKey, keys.toArray());
+    }
+
+    private EmployeeDto toEmployee(Object cachedEmployee) {
+        // Бинарный сериализатор сразу возвращает EmployeeDto, JSON без информации о типе - Map
+        if (cachedEmployee instanceof EmployeeDto employee) {
+            return employee;
+        }
+        return objectMapper.convertValue(cachedEmployee, EmployeeDto.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(EmployeeDto employee) {
+        return ((RedisSerializer<EmployeeDto>) employeeRedisTemplate.getValueSerializer()).serialize(employee);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String pageKey(long afterId, int limit) {
+        return pageKeyPrefix + afterId + ":" + limit;
+    }
+
+    private long pageAfterId(String pageKey) {
+        int start = pageKeyPrefix.length();
+        return Long.parseLong(pageKey.substring(start, pageKey.indexOf(':', start)));
+    }
+
+    /**
+     * Метрики одной операции с Redis: время выполнения (cache.redis.latency) и исходы
+     * (cache.redis.requests): hit/miss для чтений, success для записей и error для обоих.
+     */
+    private static final class CacheOperation {
+        private final Timer latency;
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter successes;
+        private final Counter errors;
+
+        private CacheOperation(MeterRegistry registry, String operation, boolean read) {
+            this.latency = Timer.builder("cache.redis.latency")
+                    .description("Время операции с кэшем Redis")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.hits = read ? counter(registry, operation, "hit") : null;
+            this.misses = read ? counter(registry, operation, "miss") : null;
+            this.successes = read ? null : counter(registry, operation, "success");
+            this.errors = counter(registry, operation, "error");
+        }
+
+        static CacheOperation read(MeterRegistry registry, String operation) {
+            return new CacheOperation(registry, operation, true);
+        }
+
+        static CacheOperation write(MeterRegistry registry, String operation) {
+            return new CacheOperation(registry, operation, false);
+        }
+
+        void hit(long startedNanos) {
+            hits(startedNanos, 1, 0);
+        }
+
+        void miss(long startedNanos) {
+            hits(startedNanos, 0, 1);
+        }
+
+        void hits(long startedNanos, int hitCount, int missCount) {
+            record(startedNanos);
+            hits.increment(hitCount);
+            misses.increment(missCount);
+        }
+
+        void success(long startedNanos) {
+            record(startedNanos);
+            successes.increment();
+        }
+
+        void error(long startedNanos) {
+            record(startedNanos);
+            errors.increment();
+        }
+
+        private void record(long startedNanos) {
+            latency.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private static Counter counter(MeterRegistry registry, String operation, String result) {
+            return Counter.builder("cache.redis.requests")
+                    .description("Операции с кэшем Redis по исходу")
+                    .tag("operation", operation)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+
+    private static final class CachedStats {
+        private long epoch;
+        private EmployeeStatsDto stats;
+
+        @SuppressWarnings("unused")
+        private CachedStats() {}
+
+        private CachedStats(long epoch, EmployeeStatsDto stats) {
+            this.epoch = epoch;
+            this.stats = stats;
+        }
+
+        public long getEpoch() { return epoch; }
+        public void setEpoch(long epoch) { this.epoch = epoch; }
+        public EmployeeStatsDto getStats() { return stats; }
+        public void setStats(EmployeeStatsDto stats) { this.stats = stats; }
     }
 }
@@ -0,0 +1,172 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import junit.framework.TestCase;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Повторная отправка журнала при обрыве связи с брокером: команды доходят до domain-service
+ * в порядке приёма, считая только первую доставку каждого messageId (повторы он отсеивает).
+ */
+public class RabbitMQSenderTest extends TestCase {
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Path spillDir;
+    private FakeBroker broker;
+    private RabbitMQSender sender;
+
+    @Override
+    protected void setUp() throws Exception {
+        spillDir = Files.createTempDirectory("spill");
+        broker = new FakeBroker();
+        sender = new RabbitMQSender(broker, new SimpleMeterRegistry(), 100, 10, 10_000, 50, spillDir.toString());
+        sender.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        broker.down = false;
+        sender.stop();
+        try (Stream<Path> files = Files.walk(spillDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public void testBrokerDropMidReplayKeepsOrder() throws Exception {
+        broker.down = true;
+        awaitAll(send("a1", "a2", "a3", "a4", "a5"));
+
+        // Брокер вернулся, принимает две команды из журнала и зависает на третьей
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch drop = new CountDownLatch(1);
+        broker.failAfter(2, stuck, drop);
+        broker.down = false;
+        assertTrue("повторная отправка не началась", stuck.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Новые команды во время повторной отправки встают в текущий журнал
+        awaitAll(send("b1", "b2"));
+        // Связь обрывается посреди повторной отправки
+        drop.countDown();
+        waitUntil(() -> broker.down);
+        broker.down = false;
+
+        waitUntil(() -> broker.firstDeliveries().size() == 7);
+        assertEquals(List.of("a1", "a2", "a3", "a4", "a5", "b1", "b2"), new ArrayList<>(broker.firstDeliveries()));
+
+        // После отправки журнала команды снова идут напрямую
+        awaitAll(send("c1"));
+        assertEquals(List.of("a1", "a2", "a3", "a4", "a5", "b1", "b2", "c1"),
+                new ArrayList<>(broker.firstDeliveries()));
+    }
+
+    private List<CompletableFuture<Void>> send(String... ids) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String id : ids) {
+            MessageProperties properties = new MessageProperties();
+            properties.setMessageId(id);
+            futures.add(sender.sendCommand(new Message(id.getBytes(), properties)));
+        }
+        return futures;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> futures) throws Exception {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void waitUntil(Condition condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.met()) {
+            assertTrue("условие не выполнилось за " + TIMEOUT_MS + " мс", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private interface Condition {
+        boolean met() throws IOException;
+    }
+
+    /**
+     * Брокер в памяти: подтверждает каждую принятую команду сразу, а недоступный - бросает
+     * исключение соединения, как RabbitTemplate без связи.
+     */
+    private static final class FakeBroker extends RabbitTemplate {
+        private final List<String> delivered = new ArrayList<>();
+        private volatile boolean down;
+        private int sendsBeforeDrop = -1;
+        private CountDownLatch stuck;
+        private CountDownLatch drop;
+
+        synchronized void failAfter(int sends, CountDownLatch stuck, CountDownLatch drop) {
+            this.sendsBeforeDrop = sends;
+            this.stuck = stuck;
+            this.drop = drop;
+        }
+
+        synchronized Set<String> firstDeliveries() {
+            return new LinkedHashSet<>(delivered);
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+            if (down) {
+                throw new AmqpConnectException(new ConnectException("брокер недоступен"));
+            }
+            if (dropNow()) {
+                down = true;
+                throw new AmqpConnectException(new ConnectException("соединение оборвано"));
+            }
+            synchronized (this) {
+                delivered.add(message.getMessageProperties().getMessageId());
+            }
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+        }
+
+        private boolean dropNow() {
+            CountDownLatch waitFor;
+            synchronized (this) {
+                if (sendsBeforeDrop < 0) {
+                    return false;
+                }
+                if (sendsBeforeDrop-- > 0) {
+                    return false;
+                }
+                sendsBeforeDrop = -1;
+                stuck.countDown();
+                waitFor = drop;
+            }
+            try {
+                return waitFor.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+
+        @Override
+        public <T> T execute(ChannelCallback<T> action) {
+            if (down) {
+                throw new AmqpConnectException(new ConnectException("брокер недоступен"));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Объём выделенной памяти по потокам JVM (com.sun.management.ThreadMXBean). Потоки генератора
+ * нагрузки (loadtest-*, HttpClient-*) считаются отдельно, чтобы отделить их от сервисов.
+ * Выделенное потоками, завершившимися между замерами, не учитывается.
+ */
+final class AllocationMeter {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    Snapshot snapshot() {
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        Map<Long, Long> byThread = new HashMap<>();
+        Map<Long, Boolean> generator = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] == null || allocated[i] < 0) {
+                continue;
+            }
+            byThread.put(ids[i], allocated[i]);
+            String name = infos[i].getThreadName();
+            generator.put(ids[i], name.startsWith("loadtest-") || name.startsWith("HttpClient-"));
+        }
+        return new Snapshot(byThread, generator);
+    }
+
+    static final class Snapshot {
+        private final Map<Long, Long> allocated;
+        private final Map<Long, Boolean> generator;
+
+        private Snapshot(Map<Long, Long> allocated, Map<Long, Boolean> generator) {
+            this.allocated = allocated;
+            this.generator = generator;
+        }
+
+        /**
+         * Выделено с момента earlier: [всего, потоками генератора нагрузки].
+         */
+        long[] allocatedSince(Snapshot earlier) {
+            long total = 0;
+            long generatorTotal = 0;
+            for (Map.Entry<Long, Long> entry : allocated.entrySet()) {
+                long delta = entry.getValue() - earlier.allocated.getOrDefault(entry.getKey(), 0L);
+                total += delta;
+                if (generator.get(entry.getKey())) {
+                    generatorTotal += delta;
+                }
+            }
+            return new long[]{total, generatorTotal};
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.loadtest;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сводка поиска предела по ступеням частоты: для каждого режима gateway и сценария - все ступени
+ * и наибольшая частота, при которой p99 укладывается в цель. Сравнение режимов при одинаковом p99
+ * честнее, чем сравнение задержек при одной частоте: у насыщенного режима задержка растёт без предела.
+ */
+final class CapacityReport {
+    private final List<Step> steps = new ArrayList<>();
+
+    void record(String mode, Scenario scenario, double rate, ScenarioResult result, boolean withinTarget) {
+        steps.add(new Step(mode, scenario.getName(), scenario.getP99TargetMs(), rate, result.throughput(),
+                result.totalMillis(50), result.totalMillis(99), result.failures(), withinTarget));
+    }
+
+    boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    void log(Logger log) {
+        lines().forEach(log::info);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-10s %-14s %9s %9s %9s %9s %7s %s",
+                "режим", "сценарий", "запр/с", "ответов/с", "p50 мс", "p99 мс", "ошибок", "в пределах p99"));
+        Map<String, Step> best = new LinkedHashMap<>();
+        for (Step step : steps) {
+            lines.add(String.format(Locale.ROOT, "%-10s %-14s %9.0f %9.1f %9.2f %9.2f %7d %s",
+                    step.mode, step.scenario, step.rate, step.throughput, step.p50Ms, step.p99Ms, step.failures,
+                    step.withinTarget ? "да" : "нет"));
+            String key = step.mode + " " + step.scenario;
+            best.putIfAbsent(key, null);
+            if (step.withinTarget) {
+                best.put(key, step);
+            }
+        }
+        lines.add("");
+        for (Map.Entry<String, Step> entry : best.entrySet()) {
+            Step step = entry.getValue();
+            lines.add(step == null
+                    ? entry.getKey() + ": ни одна ступень не уложилась в цель p99"
+                    : String.format(Locale.ROOT, "%s: предел %.0f запр/с при p99 %.2f мс (цель %.0f мс)",
+                    entry.getKey(), step.rate, step.p99Ms, step.p99TargetMs));
+        }
+        return lines;
+    }
+
+    private static final class Step {
+        private final String mode;
+        private final String scenario;
+        private final double p99TargetMs;
+        private final double rate;
+        private final double throughput;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final long failures;
+        private final boolean withinTarget;
+
+        private Step(String mode, String scenario, double p99TargetMs, double rate, double throughput,
+                     double p50Ms, double p99Ms, long failures, boolean withinTarget) {
+            this.mode = mode;
+            this.scenario = scenario;
+            this.p99TargetMs = p99TargetMs;
+            this.rate = rate;
+            this.throughput = throughput;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.failures = failures;
+            this.withinTarget = withinTarget;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.qpid.server.SystemLauncher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Внешние зависимости сервисов внутри процесса: PostgreSQL (настоящий сервер из embedded-postgres),
+ * Redis (бинарник embedded-redis) и AMQP 0-9-1 брокер Qpid в памяти с подтверждениями публикаций.
+ */
+final class EmbeddedInfrastructure implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedInfrastructure.class);
+
+    static final String AMQP_USERNAME = "admin";
+    static final String AMQP_PASSWORD = "password";
+    static final String DATABASE = "postgres";
+    static final String DATABASE_USER = "postgres";
+
+    private EmbeddedPostgres postgres;
+    private RedisServer redis;
+    private SystemLauncher broker;
+    private int redisPort;
+    private int amqpPort;
+    private Path workDir;
+
+    private EmbeddedInfrastructure() {
+    }
+
+    static EmbeddedInfrastructure start() throws Exception {
+        EmbeddedInfrastructure infrastructure = new EmbeddedInfrastructure();
+        try {
+            infrastructure.startAll();
+            return infrastructure;
+        } catch (Exception e) {
+            infrastructure.close();
+            throw e;
+        }
+    }
+
+    private void startAll() throws Exception {
+        workDir = Files.createTempDirectory("loadtest-");
+
+        postgres = EmbeddedPostgres.builder().start();
+        log.info("PostgreSQL запущен на порту {}", postgres.getPort());
+
+        redisPort = freePort();
+        redis = new RedisServer(redisPort);
+        redis.start();
+        log.info("Redis запущен на порту {}", redisPort);
+
+        amqpPort = freePort();
+        URL config = EmbeddedInfrastructure.class.getResource("/loadtest-broker.json");
+        Map<String, String> context = new HashMap<>();
+        context.put("qpid.amqp_port", String.valueOf(amqpPort));
+        context.put("qpid.work_dir", workDir.resolve("qpid").toString());
+        context.put("loadtest.amqp.username", AMQP_USERNAME);
+        context.put("loadtest.amqp.password", AMQP_PASSWORD);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("type", "Memory");
+        attributes.put("initialConfigurationLocation", config.toExternalForm());
+        attributes.put("startupLoggedToSystemOut", false);
+        attributes.put("context", context);
+        broker = new SystemLauncher();
+        broker.startup(attributes);
+        log.info("AMQP-брокер запущен на порту {}", amqpPort);
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl(DATABASE_USER, DATABASE) + "&reWriteBatchedInserts=true";
+    }
+
+    int redisPort() {
+        return redisPort;
+    }
+
+    int amqpPort() {
+        return amqpPort;
+    }
+
+    Path workDir() {
+        return workDir;
+    }
+
+    @Override
+    public void close() {
+        if (broker != null) {
+            broker.shutdown();
+        }
+        try {
+            if (redis != null) {
+                redis.stop();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        } catch (IOException e) {
+            log.warn("Ошибка остановки встроенных сервисов: {}", e.getMessage());
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Готовит базу до старта domain-service: схема теми же миграциями, что и в сервисе, затем
+ * сотрудники с id 1..count. Данные должны быть на месте до запуска контекста - индекс имён
+ * и агрегаты статистики строятся по таблице при старте.
+ */
+final class EmployeeSeeder {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSeeder.class);
+
+    private static final String SEED_SQL = """
+            INSERT INTO employees (id, name, position, salary, hire_date)
+            SELECT g,
+                   (ARRAY['Иван', 'Анна', 'Пётр', 'Мария', 'Сергей', 'Ольга', 'Дмитрий', 'Елена'])[1 + g % 8]
+                       || ' ' || (ARRAY['Иванов', 'Смирнов', 'Кузнецов', 'Попов', 'Васильев', 'Соколов'])[1 + (g / 8) % 6]
+                       || ' ' || g,
+                   (ARRAY['Разработчик', 'Аналитик', 'Тестировщик', 'Менеджер', 'Дизайнер'])[1 + g % 5],
+                   40000 + (g::bigint * 7919) % 160000,
+                   DATE '2010-01-01' + (g * 37) % 5000
+            FROM generate_series(1, ?) AS g
+            """;
+
+    private EmployeeSeeder() {
+    }
+
+    static void seed(String jdbcUrl, int count) throws SQLException {
+        migrate(jdbcUrl);
+
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl)) {
+            try (PreparedStatement insert = connection.prepareStatement(SEED_SQL)) {
+                insert.setInt(1, count);
+                insert.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                // Так же, как V1__baseline.sql: последовательность выше выданных id
+                statement.execute("SELECT setval('employees_seq', (SELECT COALESCE(MAX(id), 0) FROM employees) + 50)");
+                statement.execute("ANALYZE employees");
+            }
+        }
+        log.info("Добавлено {} сотрудников за {} мс", count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Схема теми же миграциями и с теми же настройками Flyway, что и в domain-service.
+     */
+    static void migrate(String jdbcUrl) {
+        Flyway.configure()
+                .dataSource(jdbcUrl, EmbeddedInfrastructure.DATABASE_USER, "")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                // Как spring.flyway.postgresql.transactional-lock=false: иначе V2 с CONCURRENTLY не завершится
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+}
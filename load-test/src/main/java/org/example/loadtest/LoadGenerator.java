@@ -0,0 +1,178 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Подаёт запросы сценария в gateway по HTTP с постоянной частотой (открытая модель): момент
+ * отправки каждого запроса задан расписанием и не зависит от ответов на предыдущие.
+ * Задержка считается от запланированного момента, а не от фактической отправки, поэтому
+ * отставание генератора при перегрузке тоже попадает в гистограмму (без coordinated omission).
+ */
+final class LoadGenerator {
+    private static final String[] POSITIONS = {"Разработчик", "Аналитик", "Тестировщик", "Менеджер", "Дизайнер"};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final AllocationMeter allocationMeter = new AllocationMeter();
+    private final URI baseUri;
+    private final int seededEmployees;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration requestTimeout;
+
+    LoadGenerator(URI baseUri, int seededEmployees, int maxInFlight, long requestTimeoutMs) {
+        this.baseUri = baseUri;
+        this.seededEmployees = seededEmployees;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+
+    ScenarioResult run(Scenario scenario) throws InterruptedException {
+        ZipfianGenerator keys = new ZipfianGenerator(seededEmployees, scenario.getZipfExponent());
+        SplittableRandom random = new SplittableRandom(42);
+
+        if (scenario.getWarmupSeconds() > 0) {
+            drive(scenario, keys, random, new Phase(), scenario.getWarmupSeconds());
+            awaitIdle();
+        }
+
+        Phase phase = new Phase();
+        AllocationMeter.Snapshot before = allocationMeter.snapshot();
+        long started = System.nanoTime();
+        drive(scenario, keys, random, phase, scenario.getDurationSeconds());
+        awaitIdle();
+        long elapsedNanos = System.nanoTime() - started;
+        long[] allocated = allocationMeter.snapshot().allocatedSince(before);
+
+        Map<Operation, ScenarioResult.OperationResult> operations = new EnumMap<>(Operation.class);
+        phase.stats.forEach((operation, stats) -> operations.put(operation, new ScenarioResult.OperationResult(
+                stats.recorder.getIntervalHistogram(), stats.errors.sum(), stats.dropped.sum())));
+        return new ScenarioResult(scenario, operations, elapsedNanos, allocated[0], allocated[1]);
+    }
+
+    private void drive(Scenario scenario, ZipfianGenerator keys, SplittableRandom random, Phase phase, int seconds) {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) * scenario.getBurstSize() / scenario.getRate());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long tick = 0; ; tick++) {
+            long intendedStart = start + tick * periodNanos;
+            if (intendedStart >= end) {
+                return;
+            }
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            for (int i = 0; i < scenario.getBurstSize(); i++) {
+                Operation operation = scenario.nextOperation(random);
+                send(phase.stats.get(operation), request(operation, scenario, keys, random), intendedStart);
+            }
+        }
+    }
+
+    private void send(OperationStats stats, HttpRequest request, long intendedStart) {
+        if (!inFlight.tryAcquire()) {
+            stats.dropped.increment();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    stats.recorder.recordValue(System.nanoTime() - intendedStart);
+                    if (error != null || response.statusCode() >= 400) {
+                        stats.errors.increment();
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private HttpRequest request(Operation operation, Scenario scenario, ZipfianGenerator keys, SplittableRandom random) {
+        HttpRequest.Builder builder = switch (operation) {
+            case GET -> HttpRequest.newBuilder(employeesUri("/" + (keys.next(random) + 1))).GET();
+            case LIST -> HttpRequest.newBuilder(employeesUri(
+                    "?after=" + random.nextInt(seededEmployees) + "&limit=" + scenario.getListLimit())).GET();
+            case CREATE -> HttpRequest.newBuilder(employeesUri(""))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(employeeJson(random)));
+            case UPDATE -> HttpRequest.newBuilder(employeesUri("/" + (keys.next(random) + 1)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(employeeJson(random)));
+            case SEARCH -> HttpRequest.newBuilder(employeesUri(searchQuery(scenario, random))).GET();
+        };
+        return builder.timeout(requestTimeout).build();
+    }
+
+    private URI employeesUri(String suffix) {
+        return baseUri.resolve("/api/employees" + suffix);
+    }
+
+    /**
+     * Три вида поиска из db/search-explain.sql: должность с диапазоном зарплаты, должность
+     * с периодом приёма (новые сначала) и только диапазон зарплаты по убыванию.
+     */
+    private static String searchQuery(Scenario scenario, SplittableRandom random) {
+        String position = URLEncoder.encode(POSITIONS[random.nextInt(POSITIONS.length)], StandardCharsets.UTF_8);
+        int salaryMin = 40000 + random.nextInt(140000);
+        LocalDate hiredFrom = LocalDate.of(2010, 1, 1).plusDays(random.nextInt(4000));
+        String query = switch (random.nextInt(3)) {
+            case 0 -> "position=" + position + "&salaryMin=" + salaryMin + "&salaryMax=" + (salaryMin + 20000)
+                    + "&sort=salary";
+            case 1 -> "position=" + position + "&hiredFrom=" + hiredFrom + "&hiredTo=" + hiredFrom.plusYears(2)
+                    + "&sort=hireDate&order=desc";
+            default -> "salaryMin=" + salaryMin + "&sort=salary&order=desc";
+        };
+        return "/search?" + query + "&limit=" + scenario.getListLimit();
+    }
+
+    private static String employeeJson(SplittableRandom random) {
+        return String.format(Locale.ROOT,
+                "{\"name\":\"Сотрудник нагрузки %d\",\"position\":\"%s\",\"salary\":%d,\"hireDate\":\"%s\"}",
+                random.nextInt(1_000_000),
+                POSITIONS[random.nextInt(POSITIONS.length)],
+                40000 + random.nextInt(160000),
+                LocalDate.of(2010, 1, 1).plusDays(random.nextInt(5000)));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long timeoutMs = requestTimeout.toMillis() + 5000;
+        if (!inFlight.tryAcquire(maxInFlight, timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Запросы не завершились за " + timeoutMs + " мс");
+        }
+        inFlight.release(maxInFlight);
+    }
+
+    private static final class Phase {
+        private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+        private Phase() {
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new OperationStats());
+            }
+        }
+    }
+
+    private static final class OperationStats {
+        // Значения в наносекундах, 3 значащие цифры; диапазон растёт автоматически
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Нагрузочный прогон: встроенная инфраструктура, domain-service и gateway-service в одном
+ * процессе, затем сценарии из loadtest.properties по очереди. Запуск:
+ * mvn -B -P load-test -pl load-test -am verify
+ * <p>
+ * С loadtest.execution-modes=blocking,async сценарии прогоняются для каждого режима gateway,
+ * отчёты - в подкаталогах report-dir по имени режима, сводка ступеней частоты - в capacity.txt.
+ */
+public class LoadTestMain {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestMain.class);
+
+    public static void main(String[] args) throws Exception {
+        // Поток генератора нагрузки отделяется от потоков сервисов в замере выделения памяти
+        Thread.currentThread().setName("loadtest-main");
+        LoadTestSettings settings = LoadTestSettings.load();
+        List<Scenario> scenarios = settings.scenarios();
+        List<String> modes = new ArrayList<>(settings.executionModes());
+        if (modes.isEmpty()) {
+            modes.add(null);
+        }
+        CapacityReport capacity = new CapacityReport();
+
+        try (EmbeddedInfrastructure infrastructure = EmbeddedInfrastructure.start()) {
+            EmployeeSeeder.seed(infrastructure.jdbcUrl(), settings.seedEmployees());
+
+            try (ConfigurableApplicationContext domain = ServiceModules.startDomain(infrastructure)) {
+                for (String mode : modes) {
+                    Path reportDir = mode == null ? settings.reportDir() : settings.reportDir().resolve(mode);
+                    try (ConfigurableApplicationContext gateway =
+                                 ServiceModules.startGateway(infrastructure, settings.gatewayPort(), mode)) {
+                        int port = gateway.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                        log.info("Сервисы запущены, gateway на порту {}, режим {}", port,
+                                gateway.getEnvironment().getProperty("gateway.execution.mode"));
+
+                        LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port),
+                                settings.seedEmployees(), settings.maxInFlight(), settings.requestTimeoutMs());
+                        if (settings.gatewayWarmupSeconds() > 0) {
+                            log.info("Прогрев gateway {} с", settings.gatewayWarmupSeconds());
+                            generator.run(scenarios.get(0).warmup(settings.gatewayWarmupSeconds()));
+                        }
+                        for (Scenario scenario : scenarios) {
+                            if (scenario.getRateSteps().isEmpty()) {
+                                run(generator, scenario, reportDir);
+                            } else {
+                                runSteps(generator, scenario, mode, reportDir, capacity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (!capacity.isEmpty()) {
+            capacity.log(log);
+            capacity.write(settings.reportDir().resolve("capacity.txt"));
+        }
+        log.info("Гистограммы задержек записаны в {}", settings.reportDir().toAbsolutePath());
+        System.exit(0);
+    }
+
+    private static ScenarioResult run(LoadGenerator generator, Scenario scenario, Path reportDir)
+            throws InterruptedException, IOException {
+        log.info("Запуск сценария {} (прогрев {} с)", scenario.getName(), scenario.getWarmupSeconds());
+        ScenarioResult result = generator.run(scenario);
+        result.log(log);
+        result.writeHistograms(reportDir);
+        return result;
+    }
+
+    /**
+     * Ступени частоты по возрастанию, пока p99 по всем операциям не превысит цель: выше предела
+     * задержка только растёт, а прогон занимает время.
+     */
+    private static void runSteps(LoadGenerator generator, Scenario scenario, String mode, Path reportDir,
+                                 CapacityReport capacity) throws InterruptedException, IOException {
+        for (double rate : scenario.getRateSteps()) {
+            ScenarioResult result = run(generator, scenario.atRate(rate), reportDir);
+            boolean withinTarget = result.failures() == 0 && result.totalMillis(99) <= scenario.getP99TargetMs();
+            capacity.record(mode == null ? "default" : mode, scenario, rate, result, withinTarget);
+            if (!withinTarget) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.loadtest;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Настройки прогона: loadtest.properties из classpath, поверх - файл из -Dloadtest.config,
+ * поверх - системные свойства loadtest.* (пустые значения пропускаются).
+ */
+final class LoadTestSettings {
+    private static final String PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestSettings load() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("loadtest.properties"));
+        String config = System.getProperty(PREFIX + "config", "");
+        if (!config.isBlank()) {
+            properties.putAll(PropertiesLoaderUtils.loadProperties(new FileSystemResource(config)));
+        }
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith(PREFIX) && !value.toString().isBlank()) {
+                properties.put(key, value);
+            }
+        });
+        return new LoadTestSettings(properties);
+    }
+
+    int seedEmployees() {
+        return Integer.parseInt(required("seed.employees"));
+    }
+
+    int gatewayPort() {
+        return Integer.parseInt(properties.getProperty(PREFIX + "gateway-port", "0"));
+    }
+
+    int maxInFlight() {
+        return Integer.parseInt(required("max-in-flight"));
+    }
+
+    long requestTimeoutMs() {
+        return Long.parseLong(required("request-timeout-ms"));
+    }
+
+    /**
+     * Режимы выполнения gateway (gateway.execution.mode) для сравнения: сценарии прогоняются
+     * для каждого режима на заново запущенном gateway. Пустой список - один прогон с режимом по умолчанию.
+     */
+    List<String> executionModes() {
+        List<String> modes = new ArrayList<>();
+        for (String mode : optional("execution-modes", "").split(",")) {
+            if (!mode.isBlank()) {
+                modes.add(mode.trim());
+            }
+        }
+        return modes;
+    }
+
+    /**
+     * Прогрев каждого запущенного gateway до замеров. Без него первый режим проигрывает
+     * второму из-за JIT-компиляции и пустых кэшей, а не из-за самого режима.
+     */
+    int gatewayWarmupSeconds() {
+        return Integer.parseInt(optional("gateway-warmup-seconds", "0"));
+    }
+
+    Path reportDir() {
+        return Path.of(properties.getProperty(PREFIX + "report-dir", "target/loadtest"));
+    }
+
+    List<Scenario> scenarios() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : required("scenarios").split(",")) {
+            scenarios.add(scenario(name.trim()));
+        }
+        return scenarios;
+    }
+
+    private Scenario scenario(String name) {
+        String prefix = "scenario." + name + ".";
+        List<Double> rateSteps = new ArrayList<>();
+        for (String step : optional(prefix + "rate-steps", "").split(",")) {
+            if (!step.isBlank()) {
+                rateSteps.add(Double.parseDouble(step.trim()));
+            }
+        }
+        return new Scenario(
+                name,
+                rateSteps.isEmpty() ? Double.parseDouble(required(prefix + "rate")) : rateSteps.get(0),
+                Integer.parseInt(optional(prefix + "warmup-seconds", "10")),
+                Integer.parseInt(optional(prefix + "duration-seconds", "30")),
+                Integer.parseInt(optional(prefix + "burst-size", "1")),
+                Double.parseDouble(optional(prefix + "zipf-exponent", "0.99")),
+                Integer.parseInt(optional(prefix + "list-limit", "50")),
+                Scenario.parseMix(required(prefix + "mix")),
+                rateSteps,
+                Double.parseDouble(optional(prefix + "p99-target-ms", "0")));
+    }
+
+    private String required(String key) {
+        String value = properties.getProperty(PREFIX + key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Не задано " + PREFIX + key);
+        }
+        return value.trim();
+    }
+
+    private String optional(String key, String defaultValue) {
+        return properties.getProperty(PREFIX + key, defaultValue).trim();
+    }
+}
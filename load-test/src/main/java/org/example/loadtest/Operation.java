@@ -0,0 +1,36 @@
+package org.example.loadtest;
+
+/**
+ * Запросы к gateway, из которых складывается смесь сценария.
+ */
+enum Operation {
+    /** GET /api/employees/{id}, id по распределению Ципфа */
+    GET("get"),
+    /** GET /api/employees?after=..&limit=.. со случайного места */
+    LIST("list"),
+    /** POST /api/employees */
+    CREATE("create"),
+    /** PUT /api/employees/{id}, id по распределению Ципфа */
+    UPDATE("update"),
+    /** GET /api/employees/search: должность и диапазон зарплаты или периода приёма, как в db/search-explain.sql */
+    SEARCH("search");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция: " + key);
+    }
+}
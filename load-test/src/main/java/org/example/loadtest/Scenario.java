@@ -0,0 +1,110 @@
+package org.example.loadtest;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Сценарий нагрузки: смесь операций с весами, подаваемая с постоянной частотой.
+ * Запросы уходят пачками по burstSize штук; частота rate считается в запросах, а не в пачках.
+ * <p>
+ * Сценарий со ступенями rateSteps ищет предел пропускной способности: ступени прогоняются по очереди,
+ * пока p99 укладывается в p99TargetMs без ошибок и отброшенных запросов.
+ */
+final class Scenario {
+    private final String name;
+    private final double rate;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int burstSize;
+    private final double zipfExponent;
+    private final int listLimit;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final List<Double> rateSteps;
+    private final double p99TargetMs;
+
+    Scenario(String name, double rate, int warmupSeconds, int durationSeconds, int burstSize,
+             double zipfExponent, int listLimit, Map<Operation, Integer> mix) {
+        this(name, rate, warmupSeconds, durationSeconds, burstSize, zipfExponent, listLimit, mix, List.of(), 0);
+    }
+
+    Scenario(String name, double rate, int warmupSeconds, int durationSeconds, int burstSize,
+             double zipfExponent, int listLimit, Map<Operation, Integer> mix,
+             List<Double> rateSteps, double p99TargetMs) {
+        if (rate <= 0 || durationSeconds <= 0 || burstSize <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("Некорректные параметры сценария " + name);
+        }
+        this.name = name;
+        this.rate = rate;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.burstSize = burstSize;
+        this.zipfExponent = zipfExponent;
+        this.listLimit = listLimit;
+        this.mix = new EnumMap<>(mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Пустая смесь операций в сценарии " + name);
+        }
+        if (!rateSteps.isEmpty() && p99TargetMs <= 0) {
+            throw new IllegalArgumentException("Для ступеней rate-steps сценария " + name + " нужен p99-target-ms");
+        }
+        this.rateSteps = List.copyOf(rateSteps);
+        this.p99TargetMs = p99TargetMs;
+    }
+
+    /**
+     * Та же смесь с другой частотой - одна ступень поиска предела; имя получает суффикс частоты.
+     */
+    Scenario atRate(double stepRate) {
+        return new Scenario(String.format(Locale.ROOT, "%s-%.0f", name, stepRate), stepRate, warmupSeconds,
+                durationSeconds, burstSize, zipfExponent, listLimit, mix);
+    }
+
+    /**
+     * Прогрев свежего gateway перед замерами: та же смесь с начальной частотой, результат не нужен.
+     */
+    Scenario warmup(int seconds) {
+        return new Scenario(name + "-warmup", rate, 0, seconds, burstSize, zipfExponent, listLimit, mix);
+    }
+
+    /**
+     * Разбирает смесь вида "get:90,list:5,create:3,update:2".
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Некорректная смесь операций: " + mix);
+            }
+            weights.merge(Operation.fromKey(entry[0].trim()), Integer.parseInt(entry[1].trim()), Integer::sum);
+        }
+        return weights;
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        int point = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            point -= entry.getValue();
+            if (point < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String getName() { return name; }
+    double getRate() { return rate; }
+    int getWarmupSeconds() { return warmupSeconds; }
+    int getDurationSeconds() { return durationSeconds; }
+    int getBurstSize() { return burstSize; }
+    double getZipfExponent() { return zipfExponent; }
+    int getListLimit() { return listLimit; }
+    Map<Operation, Integer> getMix() { return mix; }
+    List<Double> getRateSteps() { return rateSteps; }
+    double getP99TargetMs() { return p99TargetMs; }
+}
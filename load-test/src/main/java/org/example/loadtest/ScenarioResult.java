@@ -0,0 +1,129 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Итог сценария: гистограммы задержек по операциям (наносекунды), пропускная способность
+ * и выделение памяти за измеряемую часть прогона.
+ */
+final class ScenarioResult {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Scenario scenario;
+    private final Map<Operation, OperationResult> operations;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final long generatorAllocatedBytes;
+
+    ScenarioResult(Scenario scenario, Map<Operation, OperationResult> operations, long elapsedNanos,
+                   long allocatedBytes, long generatorAllocatedBytes) {
+        this.scenario = scenario;
+        this.operations = operations;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.generatorAllocatedBytes = generatorAllocatedBytes;
+    }
+
+    void log(Logger log) {
+        log.info("Сценарий {}: {} запр/с, {} с, пачки по {}, смесь {}", scenario.getName(),
+                scenario.getRate(), scenario.getDurationSeconds(), scenario.getBurstSize(), scenario.getMix());
+        log.info(String.format(Locale.ROOT, "  %-8s %9s %7s %9s %9s %9s %9s %9s %9s",
+                "операция", "ответов", "ошибок", "отброшено", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс"));
+
+        long completed = 0;
+        for (Map.Entry<Operation, OperationResult> entry : operations.entrySet()) {
+            OperationResult result = entry.getValue();
+            Histogram histogram = result.histogram;
+            if (histogram.getTotalCount() == 0 && result.dropped == 0) {
+                continue;
+            }
+            completed += histogram.getTotalCount();
+            log.info(String.format(Locale.ROOT, "  %-8s %9d %7d %9d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    entry.getKey().key(), histogram.getTotalCount(), result.errors, result.dropped,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / NANOS_PER_MILLI));
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        long serviceBytes = allocatedBytes - generatorAllocatedBytes;
+        log.info(String.format(Locale.ROOT, "  пропускная способность: %d ответов за %.1f с, %.1f запр/с",
+                completed, seconds, completed / seconds));
+        log.info(String.format(Locale.ROOT,
+                "  выделение памяти: %.1f МБ/с всего, из них сервисы %.1f МБ/с (%.1f КБ на запрос), генератор %.1f МБ/с",
+                allocatedBytes / seconds / (1 << 20), serviceBytes / seconds / (1 << 20),
+                completed == 0 ? 0.0 : serviceBytes / (double) completed / 1024,
+                generatorAllocatedBytes / seconds / (1 << 20)));
+    }
+
+    /**
+     * Полные распределения в формате HdrHistogram (.hgrm, миллисекунды) - для построения кривых задержек.
+     */
+    void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, OperationResult> entry : operations.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(scenario.getName() + "-" + entry.getKey().key() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    /**
+     * Процентиль задержки по всем операциям сценария вместе.
+     */
+    double totalMillis(double percentile) {
+        Histogram total = new Histogram(3);
+        for (OperationResult result : operations.values()) {
+            total.add(result.histogram);
+        }
+        return total.getTotalCount() == 0 ? 0 : millis(total, percentile);
+    }
+
+    /**
+     * Ошибки и отброшенные запросы по всем операциям.
+     */
+    long failures() {
+        long failures = 0;
+        for (OperationResult result : operations.values()) {
+            failures += result.errors + result.dropped;
+        }
+        return failures;
+    }
+
+    double throughput() {
+        long completed = 0;
+        for (OperationResult result : operations.values()) {
+            completed += result.histogram.getTotalCount();
+        }
+        return completed / (elapsedNanos / 1e9);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    static final class OperationResult {
+        private final Histogram histogram;
+        private final long errors;
+        private final long dropped;
+
+        OperationResult(Histogram histogram, long errors, long dropped) {
+            this.histogram = histogram;
+            this.errors = errors;
+            this.dropped = dropped;
+        }
+    }
+}
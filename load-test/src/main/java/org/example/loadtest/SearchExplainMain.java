@@ -0,0 +1,95 @@
+package org.example.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выполняет domain-service/db/search-explain.sql на встроенном PostgreSQL со схемой из миграций
+ * и записывает планы EXPLAIN (ANALYZE, BUFFERS) вместе с комментариями скрипта. Запуск:
+ * java -cp ... org.example.loadtest.SearchExplainMain [скрипт] [файл отчёта]
+ */
+public class SearchExplainMain {
+    private static final Logger log = LoggerFactory.getLogger(SearchExplainMain.class);
+
+    public static void main(String[] args) throws Exception {
+        Path script = Path.of(args.length > 0 ? args[0] : "../domain-service/db/search-explain.sql");
+        Path report = Path.of(args.length > 1 ? args[1] : "target/loadtest/search-explain.txt");
+        List<String> lines = Files.readAllLines(script, StandardCharsets.UTF_8);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            String jdbcUrl = postgres.getJdbcUrl(EmbeddedInfrastructure.DATABASE_USER, EmbeddedInfrastructure.DATABASE);
+            EmployeeSeeder.migrate(jdbcUrl);
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 PrintWriter out = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+                out.println("-- " + version(connection));
+                run(connection, lines, out);
+            }
+        }
+        log.info("Планы запросов записаны в {}", report.toAbsolutePath());
+    }
+
+    /**
+     * Выполняет операторы скрипта по очереди (оператор заканчивается строкой с ';').
+     * Для EXPLAIN в отчёт попадают предшествующие ему комментарии и строки плана.
+     */
+    private static void run(Connection connection, List<String> lines, PrintWriter out) throws SQLException {
+        List<String> comments = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("--")) {
+                comments.add(line);
+                continue;
+            }
+            if (trimmed.isEmpty() && statement.isEmpty()) {
+                continue;
+            }
+            statement.append(line).append('\n');
+            if (!trimmed.endsWith(";")) {
+                continue;
+            }
+
+            String sql = statement.toString().trim();
+            statement.setLength(0);
+            long started = System.nanoTime();
+            try (Statement jdbc = connection.createStatement()) {
+                if (sql.startsWith("EXPLAIN")) {
+                    out.println();
+                    comments.forEach(out::println);
+                    out.println(sql);
+                    try (ResultSet plan = jdbc.executeQuery(sql.substring(0, sql.length() - 1))) {
+                        while (plan.next()) {
+                            out.println(plan.getString(1));
+                        }
+                    }
+                } else {
+                    jdbc.execute(sql.substring(0, sql.length() - 1));
+                    log.info("{} - {} мс", sql.lines().findFirst().orElse(sql), (System.nanoTime() - started) / 1_000_000);
+                }
+            }
+            comments.clear();
+        }
+        out.flush();
+    }
+
+    private static String version(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT version()")) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+}
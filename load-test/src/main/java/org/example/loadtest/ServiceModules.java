@@ -0,0 +1,201 @@
+package org.example.loadtest;
+
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.example.GatewayServiceApplication;
+import org.example.Main;
+import org.example.grpc.EmployeeServiceGrpcImpl;
+import org.example.grpc.GrpcServerLifecycle;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.filter.TypeFilter;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Поднимает domain-service и gateway-service двумя контекстами Spring в одном процессе.
+ * <p>
+ * Оба сервиса лежат в пакете org.example, поэтому каждый контекст сканирует только классы
+ * своего модуля (по месту загрузки класса), а настройки берёт из application.properties
+ * своего модуля; обычная загрузка application.properties с classpath отключена.
+ * gRPC между ними идёт через in-process транспорт вместо Netty.
+ */
+final class ServiceModules {
+    static final String GRPC_SERVER_NAME = "loadtest-domain-service";
+
+    private ServiceModules() {
+    }
+
+    static ConfigurableApplicationContext startDomain(EmbeddedInfrastructure infrastructure) throws IOException {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("spring.datasource.url", infrastructure.jdbcUrl());
+        overrides.put("spring.datasource.username", EmbeddedInfrastructure.DATABASE_USER);
+        overrides.put("spring.datasource.password", "");
+        overrides.put("spring.jpa.show-sql", "false");
+        overrides.put("server.port", "0");
+        // Вместо Netty-сервера из GrpcServerLifecycle - in-process сервер ниже
+        overrides.put("grpc.server.enabled", "false");
+        putRabbitProperties(overrides, infrastructure);
+        return run(DomainService.class, Main.class, overrides);
+    }
+
+    /**
+     * @param executionMode gateway.execution.mode для этого запуска или null - значение из application.properties
+     */
+    static ConfigurableApplicationContext startGateway(EmbeddedInfrastructure infrastructure, int port,
+                                                       String executionMode) throws IOException {
+        Map<String, Object> overrides = new HashMap<>();
+        if (executionMode != null) {
+            overrides.put("gateway.execution.mode", executionMode);
+        }
+        overrides.put("spring.data.redis.host", "localhost");
+        overrides.put("spring.data.redis.port", String.valueOf(infrastructure.redisPort()));
+        overrides.put("rabbitmq.publisher.spill-dir", infrastructure.workDir().resolve("spill").toString());
+        overrides.put("server.port", String.valueOf(port));
+        overrides.put("spring.main.allow-bean-definition-overriding", "true");
+        putRabbitProperties(overrides, infrastructure);
+        return run(GatewayService.class, GatewayServiceApplication.class, overrides);
+    }
+
+    private static void putRabbitProperties(Map<String, Object> overrides, EmbeddedInfrastructure infrastructure) {
+        overrides.put("spring.rabbitmq.host", "localhost");
+        overrides.put("spring.rabbitmq.port", String.valueOf(infrastructure.amqpPort()));
+        overrides.put("spring.rabbitmq.username", EmbeddedInfrastructure.AMQP_USERNAME);
+        overrides.put("spring.rabbitmq.password", EmbeddedInfrastructure.AMQP_PASSWORD);
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> source, Class<?> moduleAnchor,
+                                                      Map<String, Object> overrides) throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        moduleProperties(moduleAnchor).forEach((key, value) -> {
+            // Уровни и файлы логов сервисов заменяет общий logback.xml харнесса
+            if (!key.toString().startsWith("logging.")) {
+                properties.put(key.toString(), value);
+            }
+        });
+        properties.putAll(overrides);
+        properties.put("spring.config.name", "loadtest-none");
+        properties.put("logging.config", "classpath:logback.xml");
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("loadtest-" + source.getSimpleName(), properties));
+
+        SpringApplication application = new SpringApplication(source);
+        application.setEnvironment(environment);
+        application.setBannerMode(Banner.Mode.OFF);
+        return application.run();
+    }
+
+    private static Properties moduleProperties(Class<?> moduleAnchor) throws IOException {
+        URL location = moduleAnchor.getProtectionDomain().getCodeSource().getLocation();
+        URL properties = location.getPath().endsWith(".jar")
+                ? new URL("jar:" + location + "!/application.properties")
+                : new URL(location, "application.properties");
+        return PropertiesLoaderUtils.loadProperties(new UrlResource(properties));
+    }
+
+    /**
+     * Пакет автоконфигурации задаётся явно: по умолчанию им был бы org.example.loadtest,
+     * и Spring Data не нашёл бы репозитории и сущности domain-service.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackages = "org.example")
+    @ComponentScan(basePackages = "org.example",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = DomainServiceFilter.class))
+    static class DomainService {
+
+        @Bean
+        Server inProcessGrpcServer(EmployeeServiceGrpcImpl employeeService,
+                                   ObjectProvider<ServerInterceptor> interceptors) throws IOException {
+            InProcessServerBuilder builder = InProcessServerBuilder.forName(GRPC_SERVER_NAME)
+                    .addService(employeeService);
+            GrpcServerLifecycle.intercept(builder, interceptors);
+            return builder.build().start();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration(exclude = DataSourceAutoConfiguration.class)
+    @ComponentScan(basePackages = "org.example",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = GatewayServiceFilter.class))
+    static class GatewayService {
+
+        /**
+         * Заменяет канал из GrpcClientConfig: тот же набор перехватчиков, но in-process транспорт.
+         */
+        @Bean
+        ManagedChannel managedChannel(ObjectProvider<ClientInterceptor> interceptors) {
+            return InProcessChannelBuilder.forName(GRPC_SERVER_NAME)
+                    .intercept(interceptors.orderedStream().toList())
+                    .build();
+        }
+
+        /**
+         * Заменяет очередь событий из RabbitMQConfig: Qpid не принимает аргумент x-queue-master-locator,
+         * который AnonymousQueue добавляет для кластера RabbitMQ.
+         */
+        @Bean
+        Queue employeeEventsQueue() {
+            Queue queue = new AnonymousQueue();
+            queue.removeArgument("x-queue-master-locator");
+            return queue;
+        }
+    }
+
+    /**
+     * Исключает из сканирования классы чужих модулей и класс запуска самого сервиса
+     * (его @SpringBootApplication повторно просканировал бы весь org.example).
+     */
+    abstract static class ModuleFilter implements TypeFilter {
+        private final String location;
+
+        ModuleFilter(Class<?> moduleAnchor) {
+            this.location = moduleAnchor.getProtectionDomain().getCodeSource().getLocation().getPath();
+        }
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) throws IOException {
+            return !metadataReader.getResource().getURL().toString().contains(location)
+                    || metadataReader.getAnnotationMetadata().hasAnnotation(SpringBootApplication.class.getName());
+        }
+    }
+
+    static class DomainServiceFilter extends ModuleFilter {
+        DomainServiceFilter() {
+            super(Main.class);
+        }
+    }
+
+    static class GatewayServiceFilter extends ModuleFilter {
+        GatewayServiceFilter() {
+            super(GatewayServiceApplication.class);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Номера 0..items-1 с распределением Ципфа (алгоритм Gray et al., как в YCSB): номер 0 самый
+ * частый, при exponent 0.99 около 20% номеров получают около 80% обращений.
+ */
+final class ZipfianGenerator {
+    private final long items;
+    private final double exponent;
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(long items, double exponent) {
+        if (items < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один элемент");
+        }
+        if (exponent <= 0 || exponent >= 1) {
+            throw new IllegalArgumentException("Показатель Ципфа должен быть в (0, 1): " + exponent);
+        }
+        this.items = items;
+        this.exponent = exponent;
+        this.zetan = zeta(items, exponent);
+        this.alpha = 1.0 / (1.0 - exponent);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - exponent)) / (1 - zeta(2, exponent) / zetan);
+    }
+
+    long next(SplittableRandom random) {
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, exponent)) {
+            return Math.min(1, items - 1);
+        }
+        return Math.min((long) (items * Math.pow(eta * u - eta + 1, alpha)), items - 1);
+    }
+
+    private static double zeta(long n, double exponent) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, exponent);
+        }
+        return sum;
+    }
+}